@@ -0,0 +1,172 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BatchTranslator {
+	private final static String GAME_PATTERN = "*.{chess,pgn}";
+	private final ExecutorService pool;
+	private final File logDirectory;
+	private final int threads;
+	private boolean asynchronousLog = false;
+
+	public BatchTranslator(int threads, File logDirectory) {
+		this.threads = Math.max(threads, 1);
+		pool = Executors.newFixedThreadPool(this.threads);
+		this.logDirectory = logDirectory;
+	}
+
+	public static ArrayList<File> findGames(String directoryOrGlob) throws IOException {
+		return findGames(directoryOrGlob, GAME_PATTERN);
+	}
+
+	public static ArrayList<File> findGames(String directoryOrGlob, String directoryPattern) throws IOException {
+		Path path = Paths.get(directoryOrGlob);
+		Path directory;
+		String pattern;
+		if (Files.isDirectory(path)) {
+			directory = path;
+			pattern = directoryPattern;
+		} else {
+			directory = (path.getParent() != null ? path.getParent() : Paths.get("."));
+			pattern = path.getFileName().toString();
+		}
+		ArrayList<File> games = new ArrayList<File>();
+		DirectoryStream<Path> stream = Files.newDirectoryStream(directory, pattern);
+		try {
+			for (Path game : stream) {
+				if (Files.isRegularFile(game)) {
+					games.add(game.toFile());
+				}
+			}
+		} finally {
+			stream.close();
+		}
+		Collections.sort(games);
+		return games;
+	}
+
+	public ArrayList<String> translate(ArrayList<File> games) {
+		long start = System.currentTimeMillis();
+		ArrayList<Future<Result>> results = new ArrayList<Future<Result>>();
+		for (final File game : games) {
+			results.add(pool.submit(new Callable<Result>() {
+				@Override
+				public Result call() {
+					return translate(game);
+				}
+			}));
+		}
+		int validMoves = 0;
+		int invalidMoves = 0;
+		int invalidLines = 0;
+		int failedGames = 0;
+		ArrayList<String> failures = new ArrayList<String>();
+		for (int i = 0; i < results.size(); ++i) {
+			Result result;
+			try {
+				result = results.get(i).get();
+			} catch (InterruptedException | ExecutionException e) {
+				result = new Result(games.get(i), e);
+			}
+			validMoves += result.validMoves;
+			invalidMoves += result.invalidMoves;
+			invalidLines += result.invalidLines;
+			if (result.failure != null || result.invalidMoves + result.invalidLines > 0) {
+				++failedGames;
+				failures.add(result.describe());
+			}
+		}
+		long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+		ArrayList<String> summary = new ArrayList<String>();
+		summary.add("Batch: Translated " + games.size() + " game(s) on " + threads + " thread(s) in " + elapsed
+				+ "ms (" + String.format("%.1f", games.size() * 1000.0 / elapsed) + " games/sec).");
+		summary.add("Batch: " + validMoves + " valid move(s), " + invalidMoves + " invalid move(s), " + invalidLines
+				+ " invalid line(s).");
+		summary.add("Batch: " + failedGames + " game(s) with failures.");
+		summary.addAll(failures);
+		return summary;
+	}
+
+	public void setAsynchronousLog(boolean asynchronous) {
+		asynchronousLog = asynchronous;
+	}
+
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	private Result translate(File game) {
+		Result result;
+		LogWriter writer = null;
+		try {
+			writer = new LogWriter(new File(logDirectory, game.getName() + ".log"));
+			writer.setAsynchronous(asynchronousLog);
+			Translator translator = new Translator(game.getPath(), writer);
+			if (translator.isFileOpened()) {
+				translator.translateOnly();
+				result = new Result(game, translator);
+			} else {
+				translator.shutdown();
+				result = new Result(game, new IOException("Could not open file."));
+			}
+		} catch (Exception e) {
+			result = new Result(game, e);
+		} finally {
+			closeQuietly(writer);
+		}
+		return result;
+	}
+
+	private static void closeQuietly(LogWriter writer) {
+		if (writer != null) {
+			try {
+				writer.closeLogFile();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private static class Result {
+		private final File game;
+		private final int validMoves;
+		private final int invalidMoves;
+		private final int invalidLines;
+		private final Exception failure;
+
+		private Result(File game, Translator translator) {
+			this.game = game;
+			validMoves = translator.getValidMoves();
+			invalidMoves = translator.getInvalidMoves();
+			invalidLines = translator.getInvalidLines();
+			failure = translator.getFailure();
+		}
+
+		private Result(File game, Exception failure) {
+			this.game = game;
+			validMoves = 0;
+			invalidMoves = 0;
+			invalidLines = 0;
+			this.failure = failure;
+		}
+
+		private String describe() {
+			String description = "Failure: [" + game.getPath() + "] " + invalidMoves + " invalid move(s), "
+					+ invalidLines + " invalid line(s).";
+			if (failure != null) {
+				description += " " + failure;
+			}
+			return description;
+		}
+	}
+}
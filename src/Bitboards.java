@@ -0,0 +1,69 @@
+
+public class Bitboards {
+	public final static int BOARD_SIZE = 8;
+	public final static int SQUARES = 64;
+	public final static int PIECE_TYPES = 6;
+	public final static long EMPTY = 0L;
+
+	public static int square(int rank, int file) {
+		return (rank << 3) | file;
+	}
+
+	public static int square(Position p) {
+		return square(p.getRank(), p.getFile());
+	}
+
+	public static int rank(int square) {
+		return square >>> 3;
+	}
+
+	public static int file(int square) {
+		return square & 7;
+	}
+
+	public static long bit(int square) {
+		return 1L << square;
+	}
+
+	public static long bit(Position p) {
+		return bit(square(p));
+	}
+
+	public static boolean contains(long bitboard, int square) {
+		return (bitboard & bit(square)) != 0;
+	}
+
+	public static int firstSquare(long bitboard) {
+		return Long.numberOfTrailingZeros(bitboard);
+	}
+
+	public static long withoutFirst(long bitboard) {
+		return bitboard & (bitboard - 1);
+	}
+
+	public static int count(long bitboard) {
+		return Long.bitCount(bitboard);
+	}
+
+	public static long[] stepAttacks(int[][] changeInPosition) {
+		long[] attacks = new long[SQUARES];
+		for (int square = 0; square < SQUARES; ++square) {
+			for (int[] change : changeInPosition) {
+				int rank = rank(square) + change[0];
+				int file = file(square) + change[1];
+				if (rank >= 0 && rank < BOARD_SIZE && file >= 0 && file < BOARD_SIZE) {
+					attacks[square] |= bit(square(rank, file));
+				}
+			}
+		}
+		return attacks;
+	}
+
+	public static int pieceIndex(PieceType type, boolean isWhite) {
+		return type.ordinal() + (isWhite ? 0 : PIECE_TYPES);
+	}
+
+	public static int pieceIndex(Piece p) {
+		return pieceIndex(p.getType(), p.isWhite());
+	}
+}
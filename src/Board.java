@@ -1,73 +1,363 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 
 public class Board {
 	private final static int BOARD_SIZE = 8;
+	private final static int UNDO_CAPACITY = 256;
+	public final static int WHITE_KING_SIDE = 1;
+	public final static int WHITE_QUEEN_SIDE = 2;
+	public final static int BLACK_KING_SIDE = 4;
+	public final static int BLACK_QUEEN_SIDE = 8;
+	public final static int NO_SQUARE = -1;
+	private final static int ALL_CASTLING = 15;
+	private final static int CASTLING_BITS = 4;
+	private final static int[] CASTLING_MASK = new int[Bitboards.SQUARES];
 	private Piece[][] board;
+	private long[] pieceBoards;
+	private long whitePieces;
+	private long blackPieces;
+	private long occupied;
+	private int castlingRights;
+	private boolean whiteToMove;
+	private long hash;
+	private int midgameScore;
+	private int endgameScore;
+	private int phase;
+	private Piece[][] pieceLists;
+	private int[] pieceCounts;
+	private int[] listIndex;
+	private int[] kingSquares;
+	private int[] moveStack;
+	private int[] stateStack;
+	private Piece[] capturedStack;
+	private int undoSize;
 	LogWriter writer;
 	DirectiveHandler handler;
 
 	public Board(LogWriter writer) {
 		this.writer = writer;
 		board = new Piece[BOARD_SIZE][BOARD_SIZE];
+		pieceBoards = new long[Bitboards.PIECE_TYPES * 2];
 		handler = new DirectiveHandler();
+		whiteToMove = true;
+		pieceLists = new Piece[2][Bitboards.SQUARES];
+		pieceCounts = new int[2];
+		listIndex = new int[Bitboards.SQUARES];
+		kingSquares = new int[] { NO_SQUARE, NO_SQUARE };
+		moveStack = new int[UNDO_CAPACITY];
+		stateStack = new int[UNDO_CAPACITY];
+		capturedStack = new Piece[UNDO_CAPACITY];
 	}
 
-	public void addNewPiece(String placement) {
-		Position position = new Position(handler.getInitialRank(placement, false),
-				handler.getInitialFile(placement, false));
-		boolean isWhite = handler.isWhite(placement);
-		char piece = handler.getPieceChar(placement, isWhite);
-		board[position.getRank()][position.getFile()] = handler.getPiece(piece, position, isWhite);
+	static {
+		for (int square = 0; square < Bitboards.SQUARES; ++square) {
+			CASTLING_MASK[square] = ALL_CASTLING;
+		}
+		CASTLING_MASK[Bitboards.square(0, 4)] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+		CASTLING_MASK[Bitboards.square(0, 7)] &= ~WHITE_KING_SIDE;
+		CASTLING_MASK[Bitboards.square(0, 0)] &= ~WHITE_QUEEN_SIDE;
+		CASTLING_MASK[Bitboards.square(7, 4)] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+		CASTLING_MASK[Bitboards.square(7, 7)] &= ~BLACK_KING_SIDE;
+		CASTLING_MASK[Bitboards.square(7, 0)] &= ~BLACK_QUEEN_SIDE;
+	}
+
+	public Board copy() {
+		Board copy = new Board(writer);
+		for (long pieces = occupied; pieces != 0; pieces = Bitboards.withoutFirst(pieces)) {
+			int square = Bitboards.firstSquare(pieces);
+			Piece p = board[Bitboards.rank(square)][Bitboards.file(square)];
+			Piece piece = handler.getPiece(p.getType().getWhiteType(), p.getCurrentPosition(), p.isWhite());
+			piece.setHasMoved(p.hasMoved());
+			copy.placePiece(piece, square);
+		}
+		copy.setCastlingRights(castlingRights);
+		copy.setWhiteToMove(whiteToMove);
+		return copy;
+	}
+
+	public void addNewPiece(Directive placement) {
+		addNewPiece(placement.getPiece(), placement.isWhite(), Bitboards.square(placement.getTo()));
 	}
 
-	public boolean movePiece(String placement, boolean isWhite) {
+	public void addNewPiece(PieceType type, boolean isWhite, int square) {
+		if (Bitboards.contains(occupied, square)) {
+			removePiece(square);
+		}
+		placePiece(handler.getPiece(type.getWhiteType(), Position.of(square), isWhite), square);
+		setCastlingRights(computeCastlingRights());
+	}
+
+	public void clear() {
+		while (occupied != 0) {
+			removePiece(Bitboards.firstSquare(occupied));
+		}
+		Arrays.fill(capturedStack, 0, undoSize, null);
+		undoSize = 0;
+		setCastlingRights(0);
+		setWhiteToMove(true);
+	}
+
+	public void markMoved(Position position) {
+		getPiece(position).setHasMoved();
+		setCastlingRights(computeCastlingRights());
+	}
+
+	public boolean movePiece(Directive movement) {
 		boolean sucessfulMove = false;
-		char piece = handler.getPieceChar(placement, isWhite);
-		Position position1 = new Position(handler.getInitialRank(placement, true),
-				handler.getInitialFile(placement, true));
-		Position position2 = new Position(handler.getSecondaryRank(placement), handler.getSecondaryFile(placement));
+		Position position1 = movement.getFrom();
+		Position position2 = movement.getTo();
 
-		if (board[position1.getRank()][position1.getFile()] != null) {
-			if (isValid(position1, position2, isWhite, placement, piece)) {
+		if (isOccupied(position1)) {
+			if (isValid(movement)) {
 				Piece p = getPiece(position1);
-				if (isValidPieceMovement(handler.isCapture(placement), p, position2)) {
-					board[position1.getRank()][position1.getFile()] = null;
-					p.setHasMoved();
-					p.setCurrentPosition(position2);
-					board[position2.getRank()][position2.getFile()] = p;
-					sucessfulMove = true;
+				if (isValidPieceMovement(movement.isCapture(), p, position2)) {
+					int move = getMove(position1, position2);
+					if (isLegal(move)) {
+						makeMove(move);
+						sucessfulMove = true;
+					}
 				}
 			}
 		}
 		return sucessfulMove;
 	}
 
-	public void castle(boolean isWhite, String castle) {
-		boolean isKingSide = handler.isKingSide(castle);
-		Rook rook = getRook(isWhite, isKingSide);
-		King king = getKing(isWhite);
-		moveKingForCastle(king, isWhite, isKingSide);
-		moveRookForCastle(rook, isWhite, isKingSide);
+	public void castle(Directive castle) {
+		makeMove(getCastleMove(castle.isWhite(), castle.isKingSide()));
+	}
+
+	public void makeMove(int move) {
+		int from = Move.from(move);
+		int to = Move.to(move);
+		Piece p = board[Bitboards.rank(from)][Bitboards.file(from)];
+		boolean isWhite = p.isWhite();
+		pushUndo(move, board[Bitboards.rank(to)][Bitboards.file(to)], p.hasMoved());
+		if (Move.isCastle(move)) {
+			boolean isKingSide = Move.isKingSideCastle(move);
+			Rook rook = getRook(isWhite, isKingSide);
+			King king = getKing(isWhite);
+			stateStack[undoSize - 1] |= (rook.hasMoved() ? 1 : 0) << (CASTLING_BITS + 2);
+			moveKingForCastle(king, isWhite, isKingSide);
+			moveRookForCastle(rook, isWhite, isKingSide);
+		} else {
+			shiftPiece(from, to);
+			p.setHasMoved();
+			p.setCurrentPosition(Position.of(to));
+		}
+		setCastlingRights(castlingRights & CASTLING_MASK[from] & CASTLING_MASK[to]);
+		setWhiteToMove(!isWhite);
+		updateCheck();
+	}
+
+	public void unmakeMove() {
+		--undoSize;
+		int move = moveStack[undoSize];
+		int state = stateStack[undoSize];
+		Piece captured = capturedStack[undoSize];
+		capturedStack[undoSize] = null;
+		int from = Move.from(move);
+		int to = Move.to(move);
+		boolean hadMoved = ((state >>> CASTLING_BITS) & 1) != 0;
+		if (Move.isCastle(move)) {
+			boolean isKingSide = Move.isKingSideCastle(move);
+			Piece king = removePiece(to);
+			Piece rook = removePiece(isKingSide ? from + 1 : from - 1);
+			Position rookHome = getRookPosition(king.isWhite(), isKingSide);
+			restorePiece(king, from, hadMoved);
+			restorePiece(rook, Bitboards.square(rookHome), ((state >>> (CASTLING_BITS + 2)) & 1) != 0);
+		} else {
+			Piece p = removePiece(to);
+			restorePiece(p, from, hadMoved);
+			if (captured != null) {
+				placePiece(captured, to);
+			}
+		}
+		setCastlingRights(state & ALL_CASTLING);
+		setWhiteToMove(((state >>> (CASTLING_BITS + 1)) & 1) != 0);
+		updateCheck();
+	}
+
+	private void restorePiece(Piece p, int square, boolean hadMoved) {
+		p.setCurrentPosition(Position.of(square));
+		p.setHasMoved(hadMoved);
+		placePiece(p, square);
+	}
+
+	private void pushUndo(int move, Piece captured, boolean hadMoved) {
+		if (undoSize == moveStack.length) {
+			moveStack = Arrays.copyOf(moveStack, undoSize * 2);
+			stateStack = Arrays.copyOf(stateStack, undoSize * 2);
+			capturedStack = Arrays.copyOf(capturedStack, undoSize * 2);
+		}
+		moveStack[undoSize] = move;
+		capturedStack[undoSize] = captured;
+		stateStack[undoSize] = castlingRights | (hadMoved ? 1 : 0) << CASTLING_BITS
+				| (whiteToMove ? 1 : 0) << (CASTLING_BITS + 1);
+		++undoSize;
+	}
+
+	public int getUndoDepth() {
+		return undoSize;
+	}
+
+	public int getLastMove() {
+		return (undoSize > 0 ? moveStack[undoSize - 1] : Move.NONE);
+	}
+
+	public int getCastleMove(boolean isWhite, boolean isKingSide) {
+		int from = kingSquares[color(isWhite)];
+		return (isKingSide ? Move.encode(from, from + 2, Move.KING_SIDE_CASTLE)
+				: Move.encode(from, from - 2, Move.QUEEN_SIDE_CASTLE));
+	}
+
+	public boolean isWhiteToMove() {
+		return whiteToMove;
+	}
+
+	public int getCastlingRights() {
+		return castlingRights;
+	}
+
+	public long getHash() {
+		return hash;
+	}
 
+	public int getEvaluation() {
+		return PieceSquareTables.taper(midgameScore, endgameScore, phase);
 	}
 
-	public boolean isValidCastle(String castle, boolean isWhite) {
+	public int getPhase() {
+		return phase;
+	}
+
+	private void setCastlingRights(int rights) {
+		hash ^= Zobrist.castling(castlingRights) ^ Zobrist.castling(rights);
+		castlingRights = rights;
+	}
+
+	public void setWhiteToMove(boolean isWhite) {
+		if (isWhite != whiteToMove) {
+			hash ^= Zobrist.blackToMove();
+			whiteToMove = isWhite;
+		}
+	}
+
+	private int computeCastlingRights() {
+		int rights = 0;
+		if (hasCastlingPieces(true, true))
+			rights |= WHITE_KING_SIDE;
+		if (hasCastlingPieces(true, false))
+			rights |= WHITE_QUEEN_SIDE;
+		if (hasCastlingPieces(false, true))
+			rights |= BLACK_KING_SIDE;
+		if (hasCastlingPieces(false, false))
+			rights |= BLACK_QUEEN_SIDE;
+		return rights;
+	}
+
+	private boolean hasCastlingPieces(boolean isWhite, boolean isKingSide) {
+		Piece king = getPiece(getKingPosition(isWhite));
+		Piece rook = getPiece(getRookPosition(isWhite, isKingSide));
+		return (king != null && rook != null && king.getType() == PieceType.KING && rook.getType() == PieceType.ROOK
+				&& king.isWhite() == isWhite && rook.isWhite() == isWhite && !king.hasMoved() && !rook.hasMoved());
+	}
+
+	public boolean isValidCastle(Directive castle) {
+		return isValidCastle(castle.isWhite(), castle.isKingSide());
+	}
+
+	public boolean isValidCastle(boolean isWhite, boolean isKingSide) {
 		boolean valid = false;
-		boolean isKingSide = handler.isKingSide(castle);
-		Position rookPos = getRookPosition(isWhite, isKingSide);
-		Position kingPos = getKingPosition(isWhite);
-		Piece king = board[kingPos.getRank()][kingPos.getFile()];
-		Piece rook = board[rookPos.getRank()][rookPos.getFile()];
-		if ((rook != null && king != null) && (rook.getType() == PieceType.ROOK && king.getType() == PieceType.KING)) {
-			if (!king.hasMoved() || !rook.hasMoved()) {
-				if (!middleGroundOccupied(kingPos, rookPos, isKingSide)) {
-					valid = true;
-				}
+		int right = (isWhite ? (isKingSide ? WHITE_KING_SIDE : WHITE_QUEEN_SIDE)
+				: (isKingSide ? BLACK_KING_SIDE : BLACK_QUEEN_SIDE));
+		if ((castlingRights & right) != 0) {
+			int kingSquare = kingSquares[color(isWhite)];
+			if (!middleGroundOccupied(Position.of(kingSquare), getRookPosition(isWhite, isKingSide), isKingSide)) {
+				int passing = (isKingSide ? kingSquare + 1 : kingSquare - 1);
+				int target = (isKingSide ? kingSquare + 2 : kingSquare - 2);
+				valid = !isSquareAttacked(kingSquare, !isWhite) && !isSquareAttacked(passing, !isWhite)
+						&& !isSquareAttacked(target, !isWhite);
 			}
 		}
 		return valid;
 	}
 
+	public boolean isSquareAttacked(int square, boolean byWhite) {
+		long queens = getPieces(PieceType.QUEEN, byWhite);
+		return (Pawn.getAttacks(square, !byWhite) & getPieces(PieceType.PAWN, byWhite)) != 0
+				|| (Knight.getAttacks(square) & getPieces(PieceType.KNIGHT, byWhite)) != 0
+				|| (King.getAttacks(square) & getPieces(PieceType.KING, byWhite)) != 0
+				|| (SlidingAttacks.bishopAttacks(square, occupied) & (getPieces(PieceType.BISHOP, byWhite) | queens)) != 0
+				|| (SlidingAttacks.rookAttacks(square, occupied) & (getPieces(PieceType.ROOK, byWhite) | queens)) != 0;
+	}
+
+	public boolean isInCheck(boolean isWhite) {
+		int king = kingSquares[color(isWhite)];
+		return king != NO_SQUARE && isSquareAttacked(king, !isWhite);
+	}
+
+	public int getKingSquare(boolean isWhite) {
+		return kingSquares[color(isWhite)];
+	}
+
+	public int getPieceCount(boolean isWhite) {
+		return pieceCounts[color(isWhite)];
+	}
+
+	public Piece getPiece(boolean isWhite, int index) {
+		return pieceLists[color(isWhite)][index];
+	}
+
+	private static int color(boolean isWhite) {
+		return (isWhite ? 0 : 1);
+	}
+
+	private void updateCheck() {
+		updateCheck(true);
+		updateCheck(false);
+	}
+
+	private void updateCheck(boolean isWhite) {
+		int square = kingSquares[color(isWhite)];
+		if (square != NO_SQUARE) {
+			((King) board[Bitboards.rank(square)][Bitboards.file(square)]).setCheck(isSquareAttacked(square, !isWhite));
+		}
+	}
+
+	public boolean isLegal(int move) {
+		boolean isWhite = board[Bitboards.rank(Move.from(move))][Bitboards.file(Move.from(move))].isWhite();
+		makeMove(move);
+		boolean legal = !isInCheck(isWhite);
+		unmakeMove();
+		return legal;
+	}
+
+	public boolean isValidMove(int move) {
+		int from = Move.from(move);
+		Piece p = board[Bitboards.rank(from)][Bitboards.file(from)];
+		boolean valid = false;
+		if (p != null && Move.isCastle(move)) {
+			boolean isKingSide = Move.isKingSideCastle(move);
+			valid = (move == getCastleMove(p.isWhite(), isKingSide) && isValidCastle(p.isWhite(), isKingSide));
+		} else if (p != null) {
+			int to = Move.to(move);
+			int flags = (Bitboards.contains(getPlayerPieces(!p.isWhite()), to) ? Move.CAPTURE : 0);
+			valid = (move == Move.encode(from, to, flags) && Bitboards.contains(getMovementMask(p, true), to)
+					&& isLegal(move));
+		}
+		return valid;
+	}
+
+	public boolean leavesKingInCheck(Position position1, Position position2, boolean isCapture) {
+		Piece p = getPiece(position1);
+		return (p != null && isValidPieceMovement(isCapture, p, position2) && !isLegal(getMove(position1, position2)));
+	}
+
+	private int getMove(Position position1, Position position2) {
+		int to = Bitboards.square(position2);
+		return Move.encode(Bitboards.square(position1), to, (Bitboards.contains(occupied, to) ? Move.CAPTURE : 0));
+	}
+
 	public void writeBoard() {
 		for (int i = BOARD_SIZE - 1; i >= 0; --i) {
 			String boardString = "";
@@ -109,19 +399,16 @@ public class Board {
 		return (p == null ? " " : (p.isWhite() ? "" + p.getType().getWhiteType() : "" + p.getType().getBlackType()));
 	}
 
-	public boolean isCapture(String directive) {
-		return directive.contains("x");
-	}
-
 	public boolean isOccupied(Position position) {
-		return board[position.getRank()][position.getFile()] != null;
+		return Bitboards.contains(occupied, Bitboards.square(position));
 	}
 
-	private boolean isValid(Position position1, Position position2, boolean isWhiteTurn, String placement, char piece) {
-		boolean valid = (isCorrectPiece(piece, position1, isWhiteTurn));
+	private boolean isValid(Directive movement) {
+		Position position2 = movement.getTo();
+		boolean valid = (isCorrectPiece(movement.getPiece(), movement.getFrom(), movement.isWhite()));
 		if (isOccupied(position2) && valid) {
-			valid = (isCapture(placement) && !isPlayerPiece(isWhiteTurn, position2));
-		} else if (!isOccupied(position2) && !isCapture(placement) && valid) {
+			valid = (movement.isCapture() && !isPlayerPiece(movement.isWhite(), position2));
+		} else if (!isOccupied(position2) && !movement.isCapture() && valid) {
 			valid = true;
 		} else {
 			valid = false;
@@ -130,95 +417,217 @@ public class Board {
 	}
 
 	public boolean isPlayerPiece(boolean isWhiteTurn, Position position) {
-		return ((board[position.getRank()][position.getFile()].isWhite() && isWhiteTurn)
-				|| (!board[position.getRank()][position.getFile()].isWhite() && !isWhiteTurn));
+		return Bitboards.contains(getPlayerPieces(isWhiteTurn), Bitboards.square(position));
 	}
 
-	public boolean isCorrectPiece(char piece, Position position, boolean isWhiteTurn) {
-		char p = board[position.getRank()][position.getFile()].getType().getWhiteType();
-		boolean isCorrect = ((board[position.getRank()][position.getFile()].isWhite() && isWhiteTurn)
-				|| (!board[position.getRank()][position.getFile()].isWhite() && !isWhiteTurn));
-		return (piece == p && isCorrect);
+	public boolean isCorrectPiece(PieceType piece, Position position, boolean isWhiteTurn) {
+		long pieces = pieceBoards[Bitboards.pieceIndex(piece, isWhiteTurn)];
+		return Bitboards.contains(pieces, Bitboards.square(position));
+	}
+
+	public long getPlayerPieces(boolean isWhite) {
+		return (isWhite ? whitePieces : blackPieces);
+	}
+
+	public long getPieces(PieceType type, boolean isWhite) {
+		return pieceBoards[Bitboards.pieceIndex(type, isWhite)];
+	}
+
+	public long getOccupied() {
+		return occupied;
 	}
 
 	private Position getRookPosition(boolean isWhite, boolean isKingSide) {
 		Position rookPos;
 		if (isWhite) {
-			rookPos = (isKingSide ? new Position(0, 7) : new Position(0, 0));
+			rookPos = (isKingSide ? Position.of(0, 7) : Position.of(0, 0));
 		} else {
-			rookPos = (isKingSide ? new Position(7, 7) : new Position(7, 0));
+			rookPos = (isKingSide ? Position.of(7, 7) : Position.of(7, 0));
 		}
 		return rookPos;
 	}
 
 	private Position getKingPosition(boolean isWhite) {
-		return (isWhite ? new Position(0, 4) : new Position(7, 4));
+		return (isWhite ? Position.of(0, 4) : Position.of(7, 4));
 	}
 
 	private Rook getRook(boolean isWhite, boolean isKingSide) {
-		Position rookPos;
-		if (isWhite) {
-			rookPos = (isKingSide ? new Position(0, 7) : new Position(0, 0));
-		} else {
-			rookPos = (isKingSide ? new Position(7, 7) : new Position(7, 0));
-		}
-		Rook rook = (Rook) board[rookPos.getRank()][rookPos.getFile()];
-		board[rookPos.getRank()][rookPos.getFile()] = null;
-		return rook;
+		return (Rook) removePiece(Bitboards.square(getRookPosition(isWhite, isKingSide)));
 	}
 
 	private King getKing(boolean isWhite) {
-		Position kingPos = (isWhite ? new Position(0, 4) : new Position(7, 4));
-		King king = (King) board[kingPos.getRank()][kingPos.getFile()];
-		board[kingPos.getRank()][kingPos.getFile()] = null;
-		return king;
+		return (King) removePiece(kingSquares[color(isWhite)]);
 	}
 
 	private boolean middleGroundOccupied(Position kingPos, Position rookPos, boolean isKingSide) {
-		boolean occupied = false;
-		if (isKingSide) {
-			for (int i = kingPos.getFile() + 1; i < rookPos.getFile(); ++i) {
-				if (board[kingPos.getRank()][i] != null) {
-					occupied = true;
-				}
-			}
-		} else {
-			for (int i = kingPos.getFile() - 1; i > rookPos.getFile(); --i) {
-				if (board[kingPos.getRank()][i] != null) {
-					occupied = true;
-				}
-			}
-		}
-		return occupied;
+		int kingSquare = Bitboards.square(kingPos);
+		int rookSquare = Bitboards.square(rookPos);
+		int low = Math.min(kingSquare, rookSquare);
+		int high = Math.max(kingSquare, rookSquare);
+		long between = (Bitboards.bit(high) - 1) & ~((Bitboards.bit(low) << 1) - 1);
+		return (occupied & between) != 0;
 	}
 
 	private void moveKingForCastle(King king, boolean isWhite, boolean isKingSide) {
 		Position newKing = (isKingSide ? king.getKingSide() : king.getQueenSide());
 		king.setCurrentPosition(newKing);
 		king.setHasMoved();
-		board[newKing.getRank()][newKing.getFile()] = king;
+		placePiece(king, Bitboards.square(newKing));
 	}
 
 	private void moveRookForCastle(Rook rook, boolean isWhite, boolean isKingSide) {
 		Position newRook = (isKingSide ? rook.getKingSide() : rook.getQueenSide());
 		rook.setCurrentPosition(newRook);
 		rook.setHasMoved();
-		board[newRook.getRank()][newRook.getFile()] = rook;
+		placePiece(rook, Bitboards.square(newRook));
 	}
 
 	public Piece getPiece(Position p) {
 		return board[p.getRank()][p.getFile()];
 	}
 
+	private void placePiece(Piece p, int square) {
+		long bit = Bitboards.bit(square);
+		board[Bitboards.rank(square)][Bitboards.file(square)] = p;
+		pieceBoards[Bitboards.pieceIndex(p)] |= bit;
+		if (p.isWhite()) {
+			whitePieces |= bit;
+		} else {
+			blackPieces |= bit;
+		}
+		occupied |= bit;
+		hash ^= Zobrist.piece(Bitboards.pieceIndex(p), square);
+		midgameScore += PieceSquareTables.midgame(Bitboards.pieceIndex(p), square);
+		endgameScore += PieceSquareTables.endgame(Bitboards.pieceIndex(p), square);
+		phase += PieceSquareTables.phase(p.getType());
+		int color = color(p.isWhite());
+		listIndex[square] = pieceCounts[color];
+		pieceLists[color][pieceCounts[color]++] = p;
+		if (p.getType() == PieceType.KING) {
+			kingSquares[color] = square;
+		}
+	}
+
+	private Piece removePiece(int square) {
+		long bit = Bitboards.bit(square);
+		Piece p = board[Bitboards.rank(square)][Bitboards.file(square)];
+		board[Bitboards.rank(square)][Bitboards.file(square)] = null;
+		pieceBoards[Bitboards.pieceIndex(p)] &= ~bit;
+		whitePieces &= ~bit;
+		blackPieces &= ~bit;
+		occupied &= ~bit;
+		hash ^= Zobrist.piece(Bitboards.pieceIndex(p), square);
+		midgameScore -= PieceSquareTables.midgame(Bitboards.pieceIndex(p), square);
+		endgameScore -= PieceSquareTables.endgame(Bitboards.pieceIndex(p), square);
+		phase -= PieceSquareTables.phase(p.getType());
+		int color = color(p.isWhite());
+		Piece last = pieceLists[color][--pieceCounts[color]];
+		pieceLists[color][listIndex[square]] = last;
+		listIndex[Bitboards.square(last.getCurrentPosition())] = listIndex[square];
+		pieceLists[color][pieceCounts[color]] = null;
+		if (kingSquares[color] == square) {
+			kingSquares[color] = NO_SQUARE;
+		}
+		return p;
+	}
+
+	private void shiftPiece(int from, int to) {
+		long fromTo = Bitboards.bit(from) | Bitboards.bit(to);
+		Piece p = board[Bitboards.rank(from)][Bitboards.file(from)];
+		if (Bitboards.contains(occupied, to)) {
+			removePiece(to);
+		}
+		board[Bitboards.rank(from)][Bitboards.file(from)] = null;
+		board[Bitboards.rank(to)][Bitboards.file(to)] = p;
+		pieceBoards[Bitboards.pieceIndex(p)] ^= fromTo;
+		if (p.isWhite()) {
+			whitePieces ^= fromTo;
+		} else {
+			blackPieces ^= fromTo;
+		}
+		occupied ^= fromTo;
+		hash ^= Zobrist.piece(Bitboards.pieceIndex(p), from) ^ Zobrist.piece(Bitboards.pieceIndex(p), to);
+		midgameScore += PieceSquareTables.midgame(Bitboards.pieceIndex(p), to)
+				- PieceSquareTables.midgame(Bitboards.pieceIndex(p), from);
+		endgameScore += PieceSquareTables.endgame(Bitboards.pieceIndex(p), to)
+				- PieceSquareTables.endgame(Bitboards.pieceIndex(p), from);
+		listIndex[to] = listIndex[from];
+		if (kingSquares[color(p.isWhite())] == from) {
+			kingSquares[color(p.isWhite())] = to;
+		}
+	}
+
 	private boolean isValidPieceMovement(boolean isCapture, Piece p, Position p2) {
-		ArrayList<Position> possiblePositions = p.getMovement(board, isCapture);
-		boolean found = false;
-		for (Position pos : possiblePositions) {
-			if (pos.equals(p2)) {
-				found = true;
+		return Bitboards.contains(getMovementMask(p, isCapture), Bitboards.square(p2));
+	}
+
+	private long getMovementMask(Piece p, boolean isCapture) {
+		return p.getMovementMask(getPlayerPieces(p.isWhite()), getPlayerPieces(!p.isWhite()), isCapture);
+	}
+
+	public void generateMoves(boolean isWhite, MoveBuffer moves) {
+		generateMoves(isWhite, moves, false);
+	}
+
+	public void generateMoves(boolean isWhite, MoveBuffer moves, boolean capturesOnly) {
+		long own = getPlayerPieces(isWhite);
+		long enemy = getPlayerPieces(!isWhite);
+		long targets = (capturesOnly ? enemy : ~0L);
+		Piece[] pieces = pieceLists[color(isWhite)];
+		for (int i = pieceCounts[color(isWhite)] - 1; i >= 0; --i) {
+			pieces[i].generateMoves(own, enemy, true, targets, moves);
+		}
+		if (!capturesOnly) {
+			generateCastles(isWhite, moves);
+		}
+	}
+
+	public void generateLegalMoves(boolean isWhite, MoveBuffer moves) {
+		generateLegalMoves(isWhite, moves, false);
+	}
+
+	public void generateLegalMoves(boolean isWhite, MoveBuffer moves, boolean capturesOnly) {
+		int start = moves.size();
+		generateMoves(isWhite, moves, capturesOnly);
+		int kingSquare = kingSquares[color(isWhite)];
+		if (kingSquare != NO_SQUARE) {
+			boolean inCheck = isSquareAttacked(kingSquare, !isWhite);
+			long pinned = getPinnedPieces(isWhite, kingSquare);
+			int end = moves.size();
+			int kept = start;
+			for (int i = start; i < end; ++i) {
+				int move = moves.get(i);
+				int from = Move.from(move);
+				boolean needsTest = inCheck || from == kingSquare || Bitboards.contains(pinned, from);
+				if (!needsTest || isLegal(move)) {
+					moves.set(kept++, move);
+				}
 			}
+			moves.truncate(kept);
+		}
+	}
+
+	private long getPinnedPieces(boolean isWhite, int kingSquare) {
+		long queens = getPieces(PieceType.QUEEN, !isWhite);
+		long snipers = (SlidingAttacks.rookAttacks(kingSquare, 0) & (getPieces(PieceType.ROOK, !isWhite) | queens))
+				| (SlidingAttacks.bishopAttacks(kingSquare, 0) & (getPieces(PieceType.BISHOP, !isWhite) | queens));
+		long pinned = 0;
+		for (; snipers != 0; snipers = Bitboards.withoutFirst(snipers)) {
+			long between = SlidingAttacks.between(kingSquare, Bitboards.firstSquare(snipers)) & occupied;
+			if (Bitboards.count(between) == 1) {
+				pinned |= between & getPlayerPieces(isWhite);
+			}
+		}
+		return pinned;
+	}
+
+	private void generateCastles(boolean isWhite, MoveBuffer moves) {
+		if (isValidCastle(isWhite, true)) {
+			moves.add(getCastleMove(isWhite, true));
+		}
+		if (isValidCastle(isWhite, false)) {
+			moves.add(getCastleMove(isWhite, false));
 		}
-		return found;
 	}
 
 	// *****************************************************************************//
@@ -227,30 +636,32 @@ public class Board {
 
 	public ArrayList<Piece> getAllPossiblePieces(boolean isWhite) {
 		ArrayList<Piece> possiblePieces = new ArrayList<Piece>();
-		for (Piece[] p : board) {
-			for (Piece piece : p) {
-				if (piece != null) {
-					if (piece.isWhite() == isWhite && piece.getMovement(board, true).size() > 0) {
-						possiblePieces.add(piece);
-					}
-				}
+		for (long pieces = getPlayerPieces(isWhite); pieces != 0; pieces = Bitboards.withoutFirst(pieces)) {
+			int square = Bitboards.firstSquare(pieces);
+			Piece piece = board[Bitboards.rank(square)][Bitboards.file(square)];
+			if (!getPieceMovement(piece, true).isEmpty()) {
+				possiblePieces.add(piece);
 			}
 		}
 		return possiblePieces;
 	}
 
+	public ArrayList<Position> getPieceMovement(Piece p, boolean isCapture) {
+		ArrayList<Position> positions = new ArrayList<Position>();
+		for (long mask = getMovementMask(p, isCapture); mask != 0; mask = Bitboards.withoutFirst(mask)) {
+			int square = Bitboards.firstSquare(mask);
+			if (isLegal(getMove(p.getCurrentPosition(), Position.of(square)))) {
+				positions.add(Position.of(square));
+			}
+		}
+		return positions;
+	}
+
 	public Piece[][] getBoard() {
 		return board;
 	}
 
 	public boolean isPlayable() {
-		boolean playable = false;
-		for (Piece[] rows : board) {
-			for (Piece p : rows) {
-				if (p != null)
-					playable = true;
-			}
-		}
-		return playable;
+		return occupied != 0;
 	}
 }
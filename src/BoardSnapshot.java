@@ -0,0 +1,117 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+public class BoardSnapshot {
+	public final static String EXTENSION = ".snapshot";
+	private final static int MAGIC = 0x43534E50;
+	private final static int VERSION = 1;
+	private final static int PIECE_BYTES = 2;
+	private final static int MOVED = 0x80;
+	private final long offset;
+	private final long checksum;
+	private final boolean movementBegun;
+	private final boolean whiteToMove;
+	private final byte[] pieces;
+
+	private BoardSnapshot(long offset, long checksum, boolean movementBegun, boolean whiteToMove, byte[] pieces) {
+		this.offset = offset;
+		this.checksum = checksum;
+		this.movementBegun = movementBegun;
+		this.whiteToMove = whiteToMove;
+		this.pieces = pieces;
+	}
+
+	public static BoardSnapshot capture(Board board, boolean movementBegun, long offset, long checksum) {
+		byte[] pieces = new byte[(board.getPieceCount(true) + board.getPieceCount(false)) * PIECE_BYTES];
+		int index = 0;
+		for (int color = 0; color < 2; ++color) {
+			for (int i = 0; i < board.getPieceCount(color == 0); ++i) {
+				Piece piece = board.getPiece(color == 0, i);
+				pieces[index++] = (byte) (Bitboards.pieceIndex(piece) | (piece.hasMoved() ? MOVED : 0));
+				pieces[index++] = (byte) Bitboards.square(piece.getCurrentPosition());
+			}
+		}
+		return new BoardSnapshot(offset, checksum, movementBegun, board.isWhiteToMove(), pieces);
+	}
+
+	public static BoardSnapshot read(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Not a board snapshot: " + file);
+			}
+			long offset = in.readLong();
+			long checksum = in.readLong();
+			boolean movementBegun = in.readBoolean();
+			boolean whiteToMove = in.readBoolean();
+			byte[] pieces = new byte[in.readUnsignedByte() * PIECE_BYTES];
+			in.readFully(pieces);
+			for (int i = 0; i < pieces.length; i += PIECE_BYTES) {
+				if ((pieces[i] & ~MOVED) >= Bitboards.PIECE_TYPES * 2 || pieces[i + 1] < 0
+						|| pieces[i + 1] >= Bitboards.SQUARES) {
+					throw new IOException("Corrupt board snapshot: " + file);
+				}
+			}
+			return new BoardSnapshot(offset, checksum, movementBegun, whiteToMove, pieces);
+		} catch (EOFException e) {
+			throw new IOException("Truncated board snapshot: " + file, e);
+		} finally {
+			in.close();
+		}
+	}
+
+	public void write(File file) throws IOException {
+		File temporary = new File(file.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(offset);
+			out.writeLong(checksum);
+			out.writeBoolean(movementBegun);
+			out.writeBoolean(whiteToMove);
+			out.writeByte(pieces.length / PIECE_BYTES);
+			out.write(pieces);
+		} finally {
+			out.close();
+		}
+		Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	public void restore(Board board) {
+		board.clear();
+		for (int i = 0; i < pieces.length; i += PIECE_BYTES) {
+			int flags = pieces[i] & 0xFF;
+			int index = flags & ~MOVED;
+			int square = pieces[i + 1];
+			board.addNewPiece(PieceType.values()[index % Bitboards.PIECE_TYPES], index < Bitboards.PIECE_TYPES,
+					square);
+			if ((flags & MOVED) != 0) {
+				board.markMoved(Position.of(square));
+			}
+		}
+		board.setWhiteToMove(whiteToMove);
+	}
+
+	public long getOffset() {
+		return offset;
+	}
+
+	public long getChecksum() {
+		return checksum;
+	}
+
+	public boolean isMovementBegun() {
+		return movementBegun;
+	}
+}
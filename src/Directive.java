@@ -0,0 +1,117 @@
+
+public final class Directive {
+	public final static String KING_SIDE_CASTLE = "O-O";
+	public final static String QUEEN_SIDE_CASTLE = "O-O-O";
+	private final static char NO_SUFFIX = ' ';
+
+	private enum Kind {
+		PLACEMENT, MOVEMENT, CASTLE
+	}
+
+	private final Kind kind;
+	private final String text;
+	private final PieceType piece;
+	private final boolean isWhite;
+	private final Position from;
+	private final Position to;
+	private final boolean isCapture;
+	private final char suffix;
+
+	private Directive(Kind kind, String text, PieceType piece, boolean isWhite, Position from, Position to,
+			boolean isCapture, char suffix) {
+		this.kind = kind;
+		this.text = text;
+		this.piece = piece;
+		this.isWhite = isWhite;
+		this.from = from;
+		this.to = to;
+		this.isCapture = isCapture;
+		this.suffix = suffix;
+	}
+
+	public static Directive parse(String text, boolean isWhite) {
+		Directive directive;
+		if (text.startsWith(KING_SIDE_CASTLE)) {
+			boolean isKingSide = !text.equals(QUEEN_SIDE_CASTLE);
+			directive = new Directive(Kind.CASTLE, text, PieceType.KING, isWhite, null,
+					(isKingSide ? Position.KING_SIDE_CASTLE : Position.QUEEN_SIDE_CASTLE), false, NO_SUFFIX);
+		} else if (text.length() == 4 && (text.charAt(1) == 'l' || text.charAt(1) == 'd')) {
+			directive = new Directive(Kind.PLACEMENT, text, PieceType.fromChar(text.charAt(0)), text.charAt(1) == 'l',
+					null, square(text, 2), false, NO_SUFFIX);
+		} else {
+			boolean hasPiece = Character.isUpperCase(text.charAt(0));
+			int start = (hasPiece ? 1 : 0);
+			directive = new Directive(Kind.MOVEMENT, text,
+					(hasPiece ? PieceType.fromChar(text.charAt(0)) : PieceType.PAWN), isWhite, square(text, start),
+					square(text, start + 3), text.charAt(start + 2) == 'x',
+					(text.length() > start + 5 ? text.charAt(start + 5) : NO_SUFFIX));
+		}
+		return directive;
+	}
+
+	public static Directive placement(PieceType piece, boolean isWhite, Position position) {
+		String text = "" + piece.getWhiteType() + (isWhite ? 'l' : 'd') + squareName(position);
+		return new Directive(Kind.PLACEMENT, text, piece, isWhite, null, position, false, NO_SUFFIX);
+	}
+
+	public static String squareName(Position position) {
+		return "" + (char) ('a' + position.getFile()) + (position.getRank() + 1);
+	}
+
+	public boolean isPlacement() {
+		return kind == Kind.PLACEMENT;
+	}
+
+	public boolean isMovement() {
+		return kind == Kind.MOVEMENT;
+	}
+
+	public boolean isCastle() {
+		return kind == Kind.CASTLE;
+	}
+
+	public boolean isKingSide() {
+		return to == Position.KING_SIDE_CASTLE;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public PieceType getPiece() {
+		return piece;
+	}
+
+	public boolean isWhite() {
+		return isWhite;
+	}
+
+	public Position getFrom() {
+		return from;
+	}
+
+	public Position getTo() {
+		return to;
+	}
+
+	public boolean isCapture() {
+		return isCapture;
+	}
+
+	public boolean isCheck() {
+		return suffix == '+';
+	}
+
+	public boolean isCheckmate() {
+		return suffix == '#';
+	}
+
+	@Override
+	public String toString() {
+		return text;
+	}
+
+	private static Position square(String text, int index) {
+		return Position.of(text.charAt(index + 1) - '1', text.charAt(index) - 'a');
+	}
+}
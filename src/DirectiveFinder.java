@@ -1,99 +1,200 @@
-import java.util.ArrayList;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class DirectiveFinder {
-	Pattern placementPattern;
-	Pattern commentPattern;
-	Pattern movementPattern;
-	Pattern castlingPattern;
-	Pattern singleContainingPattern;
-	Pattern castle;
-	Pattern twoCastlesFound;
-	Pattern onlyOne;
+	private final static String CASTLE = "O-O";
+	private final static String LONG_CASTLE = "O-O-O";
+	private final static String COMMENT = "//";
+	private final static int PLACEMENT_LENGTH = 4;
+	private final static int MOVEMENT_LENGTH = 5;
+	private CharSequence line;
+	private Directive first;
+	private Directive second;
 
-	public DirectiveFinder() {
-		initializePatterns();
+	public LineType lex(CharSequence currentLine) {
+		line = trim(currentLine);
+		if (indexOf(line, COMMENT, 0) >= 0) {
+			line = trim(line.subSequence(0, indexOf(line, "/", 0)));
+		}
+		first = null;
+		second = null;
+		LineType type;
+		if (line.length() == 0) {
+			type = LineType.EMPTY;
+		} else if (isPlacement(line)) {
+			first = Directive.parse(line.toString(), true);
+			type = LineType.PLACEMENT;
+		} else if (isMovement(line)) {
+			type = LineType.MOVEMENT;
+		} else if (containsCastle(line)) {
+			type = (readLineAction(line) ? LineType.CASTLING : LineType.INCORRECT);
+		} else {
+			type = LineType.INCORRECT;
+		}
+		return type;
 	}
 
-	private void initializePatterns() {
-		String placement = "^(?<Pattern1>[KRNQBP][ld][a-h][1-8])\\s*$";
-		placementPattern = Pattern.compile(placement);
-		String movement = "^(?<Movement1>[KRNQBP]?[a-h][1-8][\\-x][a-h][1-8][#\\+]?)\\s+(?<Movement2>[KRNQBP]?[a-h][1-8][\\-x][a-h][1-8][#\\+]?)$";
-		movementPattern = Pattern.compile(movement);
-		String lineMovement = "\\s*(?<Castle1>O-O-O|O-O)?\\s*(?<Single1>[KRNQBP]?[a-h][1-8][\\-x][a-h][1-8][#+]?)?\\s*(?<Castle2>O-O-O|O-O)?\\s*";
-		castlingPattern = Pattern.compile(lineMovement);
-		String containingCastle = "(O-O-O|O-O)";
-		castle = Pattern.compile(containingCastle);
-		String onlyOneMove = "[^KRNQBPa-h]*(?<Movement1>[KRNQBP]?[a-h][1-8][\\-x][a-h][1-8][#\\+]?)\\s*";
-		onlyOne = Pattern.compile(onlyOneMove);
-		String twoCastles = "([^O\\-]*(O-O-O|O-O)[^O\\-]*){2}\\s*";
-		twoCastlesFound = Pattern.compile(twoCastles);
+	public String getLine() {
+		return line.toString();
 	}
 
-	public boolean isPlacement(String currentLine) {
-		Matcher placementMatcher = placementPattern.matcher(currentLine);
-		return placementMatcher.find();
+	public Directive getFirst() {
+		return first;
 	}
 
-	public boolean isMovement(String currentLine) {
-		Matcher movementMatcher = movementPattern.matcher(currentLine);
-		return movementMatcher.find();
+	public Directive getSecond() {
+		return second;
 	}
 
-	public String getPlacementDirective(String currentLine) {
-		Matcher placementMatcher = placementPattern.matcher(currentLine);
-		placementMatcher.find();
-		return placementMatcher.group("Pattern1");
+	private boolean isPlacement(CharSequence s) {
+		return s.length() == PLACEMENT_LENGTH && isPiece(s.charAt(0)) && (s.charAt(1) == 'l' || s.charAt(1) == 'd')
+				&& isSquare(s, 2);
 	}
 
-	public ArrayList<String> getMovementDirectives(String currentLine) {
-		Matcher movementMatcher = movementPattern.matcher(currentLine);
-		movementMatcher.find();
-		ArrayList<String> movementDirectives = new ArrayList<String>();
-		movementDirectives.add(movementMatcher.group("Movement1"));
-		movementDirectives.add(movementMatcher.group("Movement2"));
-		return movementDirectives;
+	private boolean isMovement(CharSequence s) {
+		int end = matchMovement(s, 0);
+		boolean movement = false;
+		if (end > 0 && end < s.length() && isWhitespace(s.charAt(end))) {
+			int start = skipWhitespace(s, end);
+			movement = (matchMovement(s, start) == s.length());
+			if (movement) {
+				first = Directive.parse(s.subSequence(0, end).toString(), true);
+				second = Directive.parse(s.subSequence(start, s.length()).toString(), false);
+			}
+		}
+		return movement;
 	}
 
-	public String removeComment(String currentLine) {
-		return currentLine.substring(0, currentLine.indexOf('/'));
+	private boolean containsCastle(CharSequence s) {
+		return containsTwoCastles(s) || (containsMovement(s) && indexOf(s, CASTLE, 0) >= 0);
 	}
 
-	public boolean containsComment(String currentLine) {
-		return (currentLine.contains("//"));
+	private boolean containsTwoCastles(CharSequence s) {
+		boolean found = false;
+		for (int i = indexOf(s, CASTLE, 0); i >= 0 && !found; i = indexOf(s, CASTLE, i + 1)) {
+			found = isCastleAfter(s, i + CASTLE.length())
+					|| (startsWith(s, LONG_CASTLE, i) && isCastleAfter(s, i + LONG_CASTLE.length()));
+		}
+		return found;
 	}
 
-	public boolean containsCastle(String currentLine) {
-		Matcher castleM = castle.matcher(currentLine);
-		Matcher twoCast = twoCastlesFound.matcher(currentLine);
-		return (twoCast.find() || (containsSingleMovement(currentLine) && castleM.find()));
+	private boolean isCastleAfter(CharSequence s, int index) {
+		while (index < s.length() && s.charAt(index) != 'O' && s.charAt(index) != '-') {
+			++index;
+		}
+		return startsWith(s, CASTLE, index);
 	}
 
-	public boolean containsSingleMovement(String currentLine) {
-		Matcher single = onlyOne.matcher(currentLine);
-		return single.find();
+	private boolean containsMovement(CharSequence s) {
+		boolean found = false;
+		for (int i = 0; i + MOVEMENT_LENGTH <= s.length() && !found; ++i) {
+			found = isMovementCore(s, i);
+		}
+		return found;
 	}
 
-	public ArrayList<String> getLineAction(String currentLine) {
-		ArrayList<String> movement = new ArrayList<String>();
-		Matcher single = castlingPattern.matcher(currentLine);
-		single.find();
-		if (single.group("Castle1") == null) {
-			movement.add(single.group("Single1"));
-			movement.add(single.group("Castle2"));
-		}else if (single.group("Castle2") == null) {
-			movement.add(single.group("Castle1"));
-			movement.add(single.group("Single1"));
-		}else if (single.group("Single1") == null) {
-			movement.add(single.group("Castle1"));
-			movement.add(single.group("Castle2"));
+	private boolean readLineAction(CharSequence s) {
+		int index = skipWhitespace(s, 0);
+		int end = matchCastle(s, index);
+		String castle1 = (end > 0 ? s.subSequence(index, end).toString() : null);
+		index = skipWhitespace(s, (end > 0 ? end : index));
+		end = matchMovement(s, index);
+		String single = (end > 0 ? s.subSequence(index, end).toString() : null);
+		index = skipWhitespace(s, (end > 0 ? end : index));
+		end = matchCastle(s, index);
+		String castle2 = (end > 0 ? s.subSequence(index, end).toString() : null);
+		String white = null;
+		String black = null;
+		if (castle1 == null) {
+			white = single;
+			black = castle2;
+		} else if (castle2 == null) {
+			white = castle1;
+			black = single;
+		} else if (single == null) {
+			white = castle1;
+			black = castle2;
 		}
-		return movement;
+		if (white != null && black != null) {
+			first = Directive.parse(white, true);
+			second = Directive.parse(black, false);
+		}
+		return first != null;
+	}
+
+	private int matchCastle(CharSequence s, int index) {
+		int end = -1;
+		if (startsWith(s, LONG_CASTLE, index)) {
+			end = index + LONG_CASTLE.length();
+		} else if (startsWith(s, CASTLE, index)) {
+			end = index + CASTLE.length();
+		}
+		return end;
+	}
+
+	private int matchMovement(CharSequence s, int index) {
+		int start = (index < s.length() && isPiece(s.charAt(index)) ? index + 1 : index);
+		int end = -1;
+		if (start + MOVEMENT_LENGTH <= s.length() && isMovementCore(s, start)) {
+			end = start + MOVEMENT_LENGTH;
+			if (end < s.length() && (s.charAt(end) == '#' || s.charAt(end) == '+')) {
+				++end;
+			}
+		}
+		return end;
+	}
+
+	private boolean isMovementCore(CharSequence s, int index) {
+		return isSquare(s, index) && (s.charAt(index + 2) == '-' || s.charAt(index + 2) == 'x')
+				&& isSquare(s, index + 3);
 	}
-	public boolean isCastle(String directive){
-		return directive.contains("O");
+
+	private boolean isSquare(CharSequence s, int index) {
+		char file = s.charAt(index);
+		char rank = s.charAt(index + 1);
+		return file >= 'a' && file <= 'h' && rank >= '1' && rank <= '8';
+	}
+
+	private boolean isPiece(char c) {
+		return c == 'K' || c == 'R' || c == 'N' || c == 'Q' || c == 'B' || c == 'P';
 	}
 
-	
+	private int skipWhitespace(CharSequence s, int index) {
+		while (index < s.length() && isWhitespace(s.charAt(index))) {
+			++index;
+		}
+		return index;
+	}
+
+	private boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	private static CharSequence trim(CharSequence s) {
+		int start = 0;
+		int end = s.length();
+		while (start < end && s.charAt(start) <= ' ') {
+			++start;
+		}
+		while (end > start && s.charAt(end - 1) <= ' ') {
+			--end;
+		}
+		return (start > 0 || end < s.length() ? s.subSequence(start, end) : s);
+	}
+
+	private static boolean startsWith(CharSequence s, String prefix, int index) {
+		boolean matches = index >= 0 && index + prefix.length() <= s.length();
+		for (int i = 0; i < prefix.length() && matches; ++i) {
+			matches = (s.charAt(index + i) == prefix.charAt(i));
+		}
+		return matches;
+	}
+
+	private static int indexOf(CharSequence s, String target, int from) {
+		int found = -1;
+		for (int i = from; i + target.length() <= s.length() && found < 0; ++i) {
+			if (startsWith(s, target, i)) {
+				found = i;
+			}
+		}
+		return found;
+	}
 }
@@ -0,0 +1,286 @@
+import java.util.Arrays;
+
+public class Engine {
+	public final static int INFINITE = 32000;
+	public final static int MATE = 30000;
+	private final static int MAX_PLY = 128;
+	public final static int MAX_DEPTH = MAX_PLY - 1;
+	private final static int CHECK_INTERVAL = 2048;
+	private final static int[] PIECE_VALUES = { 0, 900, 500, 320, 330, 100 };
+	private final static int TT_MOVE_SCORE = 1 << 30;
+	private final static int CAPTURE_SCORE = 1 << 20;
+	private final static int KILLER_SCORE = 1 << 19;
+	private final Board board;
+	private final TranspositionTable table;
+	private final MoveBuffer[] moves;
+	private final int[][] orderScores;
+	private final int[][] killers;
+	private final int[][] history;
+	private final long[] pathHashes;
+	private long nodes;
+	private long nodeLimit;
+	private long deadline;
+	private boolean stopped;
+	private volatile boolean stopRequested;
+	private boolean agesTable;
+	private int depthOffset;
+	private int bestMove;
+	private int rootBest;
+	private int completedDepth;
+
+	public Engine(Board board, TranspositionTable table) {
+		this.board = board;
+		this.table = table;
+		moves = new MoveBuffer[MAX_PLY];
+		orderScores = new int[MAX_PLY][];
+		for (int i = 0; i < MAX_PLY; ++i) {
+			moves[i] = new MoveBuffer();
+			orderScores[i] = new int[256];
+		}
+		killers = new int[MAX_PLY][2];
+		history = new int[Bitboards.SQUARES][Bitboards.SQUARES];
+		pathHashes = new long[MAX_PLY];
+		agesTable = true;
+		depthOffset = 0;
+	}
+
+	public void setAgesTable(boolean agesTable) {
+		this.agesTable = agesTable;
+	}
+
+	public void setDepthOffset(int depthOffset) {
+		this.depthOffset = depthOffset;
+	}
+
+	public void stop() {
+		stopRequested = true;
+	}
+
+	public int search(long moveTime, long maxNodes, int maxDepth) {
+		nodes = 0;
+		nodeLimit = (maxNodes > 0 ? maxNodes : Long.MAX_VALUE);
+		deadline = (moveTime > 0 ? System.currentTimeMillis() + moveTime : Long.MAX_VALUE);
+		stopped = false;
+		bestMove = Move.NONE;
+		completedDepth = 0;
+		if (agesTable) {
+			table.newSearch();
+		}
+		for (int[] killer : killers) {
+			killer[0] = Move.NONE;
+			killer[1] = Move.NONE;
+		}
+		for (int[] row : history) {
+			Arrays.fill(row, 0);
+		}
+		for (int depth = 1 + depthOffset; depth <= Math.min(maxDepth, MAX_DEPTH) && !stopped; ++depth) {
+			int score = alphaBeta(depth, -INFINITE, INFINITE, 0);
+			if (!stopped) {
+				bestMove = rootBest;
+				completedDepth = depth;
+				if (Math.abs(score) > MATE - MAX_PLY) {
+					break;
+				}
+			}
+		}
+		if (bestMove == Move.NONE) {
+			MoveBuffer legal = moves[0];
+			legal.clear();
+			board.generateLegalMoves(board.isWhiteToMove(), legal);
+			bestMove = (legal.isEmpty() ? Move.NONE : legal.get(0));
+		}
+		stopRequested = false;
+		return bestMove;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	private int alphaBeta(int depth, int alpha, int beta, int ply) {
+		if (depth <= 0) {
+			return quiescence(alpha, beta, ply);
+		}
+		countNode();
+		if (stopped) {
+			return 0;
+		}
+		long hash = board.getHash();
+		pathHashes[ply] = hash;
+		if (isRepetition(hash, ply)) {
+			return 0;
+		}
+		long entry = table.probe(hash);
+		int hashMove = Move.NONE;
+		if (entry != TranspositionTable.NONE) {
+			hashMove = TranspositionTable.move(entry);
+			if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+				int score = fromTable(TranspositionTable.score(entry), ply);
+				int bound = TranspositionTable.bound(entry);
+				if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+						|| (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+					return score;
+				}
+			}
+		}
+
+		boolean isWhite = board.isWhiteToMove();
+		MoveBuffer list = moves[ply];
+		list.clear();
+		board.generateLegalMoves(isWhite, list);
+		if (list.isEmpty()) {
+			return (board.isInCheck(isWhite) ? -MATE + ply : 0);
+		}
+		scoreMoves(list, ply, hashMove);
+
+		int originalAlpha = alpha;
+		int best = -INFINITE;
+		int bestLocal = Move.NONE;
+		for (int i = 0; i < list.size(); ++i) {
+			int move = pickNext(list, ply, i);
+			board.makeMove(move);
+			int score = -alphaBeta(depth - 1, -beta, -alpha, ply + 1);
+			board.unmakeMove();
+			if (stopped) {
+				return 0;
+			}
+			if (score > best) {
+				best = score;
+				bestLocal = move;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						if (!Move.isCapture(move)) {
+							storeKiller(move, ply);
+							history[Move.from(move)][Move.to(move)] += depth * depth;
+						}
+						break;
+					}
+				}
+			}
+		}
+		int bound = (best >= beta ? TranspositionTable.LOWER_BOUND
+				: (best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND));
+		table.store(hash, depth, toTable(best, ply), bound, bestLocal);
+		if (ply == 0) {
+			rootBest = bestLocal;
+		}
+		return best;
+	}
+
+	private int quiescence(int alpha, int beta, int ply) {
+		countNode();
+		if (stopped) {
+			return 0;
+		}
+		int standPat = evaluate();
+		if (standPat >= beta || ply >= MAX_PLY - 1) {
+			return standPat;
+		}
+		if (standPat > alpha) {
+			alpha = standPat;
+		}
+		MoveBuffer list = moves[ply];
+		list.clear();
+		board.generateLegalMoves(board.isWhiteToMove(), list, true);
+		scoreMoves(list, ply, Move.NONE);
+		for (int i = 0; i < list.size(); ++i) {
+			int move = pickNext(list, ply, i);
+			board.makeMove(move);
+			int score = -quiescence(-beta, -alpha, ply + 1);
+			board.unmakeMove();
+			if (stopped) {
+				return 0;
+			}
+			if (score > alpha) {
+				alpha = score;
+				if (alpha >= beta) {
+					break;
+				}
+			}
+		}
+		return alpha;
+	}
+
+	public int evaluate() {
+		int score = board.getEvaluation();
+		return (board.isWhiteToMove() ? score : -score);
+	}
+
+	private void scoreMoves(MoveBuffer list, int ply, int hashMove) {
+		if (orderScores[ply].length < list.size()) {
+			orderScores[ply] = new int[list.size() * 2];
+		}
+		int[] scores = orderScores[ply];
+		for (int i = 0; i < list.size(); ++i) {
+			int move = list.get(i);
+			int score;
+			if (move == hashMove) {
+				score = TT_MOVE_SCORE;
+			} else if (Move.isCapture(move)) {
+				score = CAPTURE_SCORE + PIECE_VALUES[typeAt(Move.to(move))] * 16 - PIECE_VALUES[typeAt(Move.from(move))] / 16;
+			} else if (move == killers[ply][0] || move == killers[ply][1]) {
+				score = KILLER_SCORE;
+			} else {
+				score = Math.min(history[Move.from(move)][Move.to(move)], KILLER_SCORE - 1);
+			}
+			scores[i] = score;
+		}
+	}
+
+	private int pickNext(MoveBuffer list, int ply, int index) {
+		int[] scores = orderScores[ply];
+		int best = index;
+		for (int i = index + 1; i < list.size(); ++i) {
+			if (scores[i] > scores[best]) {
+				best = i;
+			}
+		}
+		int move = list.get(best);
+		list.set(best, list.get(index));
+		list.set(index, move);
+		int score = scores[best];
+		scores[best] = scores[index];
+		scores[index] = score;
+		return move;
+	}
+
+	private int typeAt(int square) {
+		return board.getPiece(Position.of(square)).getType().ordinal();
+	}
+
+	private boolean isRepetition(long hash, int ply) {
+		boolean repeated = false;
+		for (int i = ply - 4; i >= 0 && !repeated; i -= 2) {
+			repeated = (pathHashes[i] == hash);
+		}
+		return repeated;
+	}
+
+	private void storeKiller(int move, int ply) {
+		if (killers[ply][0] != move) {
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = move;
+		}
+	}
+
+	private void countNode() {
+		++nodes;
+		if ((nodes & (CHECK_INTERVAL - 1)) == 0
+				&& (stopRequested || nodes >= nodeLimit || System.currentTimeMillis() >= deadline)) {
+			stopped = true;
+		}
+	}
+
+	private static int toTable(int score, int ply) {
+		return (score > MATE - MAX_PLY ? score + ply : (score < -MATE + MAX_PLY ? score - ply : score));
+	}
+
+	private static int fromTable(int score, int ply) {
+		return (score > MATE - MAX_PLY ? score - ply : (score < -MATE + MAX_PLY ? score + ply : score));
+	}
+}
@@ -0,0 +1,159 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+public class GameArchive {
+	public final static String EXTENSION = ".cga";
+	private final static int MAGIC = 0x43474152;
+	private final static int VERSION = 2;
+	private final static int BLACK_SLOT = 1;
+	private final static int HEADER_SIZE = 8;
+	private final static long WINDOW_SIZE = 64L * 1024 * 1024;
+	private final static PieceType[] TYPES = PieceType.values();
+	private final FileChannel channel;
+	private final long size;
+	private MappedByteBuffer window;
+	private long windowStart;
+	private long movesStart;
+	private long gameEnd;
+	private int moveCount;
+
+	public GameArchive(String fileName) throws IOException {
+		channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+		size = channel.size();
+		map(0, WINDOW_SIZE);
+		if (size < HEADER_SIZE || window.getInt(0) != MAGIC || window.getInt(4) != VERSION) {
+			channel.close();
+			throw new IOException("Not a game archive: " + fileName);
+		}
+		gameEnd = HEADER_SIZE;
+	}
+
+	public boolean nextGame(Board board) throws IOException {
+		long position = gameEnd;
+		boolean found = position < size;
+		if (found) {
+			board.clear();
+			ensure(position, 1);
+			int pieces = window.get(offset(position++)) & 0xFF;
+			ensure(position, pieces * 2 + 4);
+			for (int i = 0; i < pieces; ++i) {
+				int index = window.get(offset(position++));
+				int square = window.get(offset(position++));
+				board.addNewPiece(TYPES[index % Bitboards.PIECE_TYPES], index < Bitboards.PIECE_TYPES, square);
+			}
+			moveCount = window.getInt(offset(position));
+			position += 4;
+			movesStart = position;
+			gameEnd = movesStart + 2L * moveCount;
+		}
+		return found;
+	}
+
+	public int getMoveCount() {
+		return moveCount;
+	}
+
+	public int replay(Board board, GameReplayer.MoveListener listener) throws IOException {
+		ensure(movesStart, 2 * moveCount);
+		int base = offset(movesStart);
+		boolean playing = true;
+		int ply = 0;
+		while (ply < moveCount && playing) {
+			int move = window.getShort(base + 2 * ply) & 0xFFFF;
+			boolean isWhite = ((ply & BLACK_SLOT) == 0);
+			if (move != Move.NONE) {
+				Piece piece = board.getPiece(Position.of(Move.from(move)));
+				board.setWhiteToMove(isWhite);
+				playing = (piece != null && piece.isWhite() == isWhite && board.isValidMove(move));
+				if (playing) {
+					if (listener != null) {
+						listener.movePlayed(board.getHash(), move, ply);
+					}
+					board.makeMove(move);
+				}
+			}
+			if (playing) {
+				++ply;
+			}
+		}
+		return ply;
+	}
+
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	public static ArrayList<String> convert(ArrayList<File> games, File output) throws IOException {
+		final MoveBuffer moves = new MoveBuffer();
+		GameReplayer replayer = new GameReplayer(new GameReplayer.MoveListener() {
+			@Override
+			public void movePlayed(long hash, int move, int ply) {
+				moves.add(move);
+			}
+		});
+		replayer.setSkipInvalid(true);
+		int skippedMoves = 0;
+		ArrayList<String> skipped = new ArrayList<String>();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			for (File game : games) {
+				moves.clear();
+				replayer.replay(game.getPath());
+				writeGame(out, replayer.getInitialBoard(), moves);
+				if (replayer.getSkippedMoves() > 0) {
+					skippedMoves += replayer.getSkippedMoves();
+					skipped.add("Skipped: [" + game.getPath() + "] " + replayer.getSkippedMoves()
+							+ " invalid move(s) stored as empty plies.");
+				}
+			}
+		} finally {
+			out.close();
+		}
+		ArrayList<String> summary = new ArrayList<String>();
+		summary.add("Converted " + games.size() + " game(s) into [" + output + "]. " + skippedMoves
+				+ " invalid move(s) skipped in " + skipped.size() + " game(s).");
+		summary.addAll(skipped);
+		return summary;
+	}
+
+	private static void writeGame(DataOutputStream out, Board initial, MoveBuffer moves) throws IOException {
+		out.writeByte(initial.getPieceCount(true) + initial.getPieceCount(false));
+		for (int color = 0; color < 2; ++color) {
+			for (int i = 0; i < initial.getPieceCount(color == 0); ++i) {
+				Piece piece = initial.getPiece(color == 0, i);
+				out.writeByte(Bitboards.pieceIndex(piece));
+				out.writeByte(Bitboards.square(piece.getCurrentPosition()));
+			}
+		}
+		out.writeInt(moves.size());
+		for (int i = 0; i < moves.size(); ++i) {
+			out.writeShort(moves.get(i));
+		}
+	}
+
+	private int offset(long index) {
+		return (int) (index - windowStart);
+	}
+
+	private void ensure(long start, long length) throws IOException {
+		if (start < windowStart || start + length > windowStart + window.limit()) {
+			map(start, Math.max(WINDOW_SIZE, length));
+		}
+	}
+
+	private void map(long start, long length) throws IOException {
+		windowStart = start;
+		window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(Math.min(length, Integer.MAX_VALUE),
+				size - start));
+	}
+}
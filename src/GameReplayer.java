@@ -0,0 +1,96 @@
+import java.io.IOException;
+
+public class GameReplayer {
+	public interface MoveListener {
+		void movePlayed(long hash, int move, int ply);
+	}
+
+	private final DirectiveFinder finder;
+	private final MoveListener listener;
+	private Board board;
+	private Board initial;
+	private int ply;
+	private boolean skipInvalid = false;
+	private int skippedMoves;
+
+	public GameReplayer(MoveListener listener) {
+		this.listener = listener;
+		finder = new DirectiveFinder();
+	}
+
+	public Board replay(String fileName) throws IOException {
+		board = new Board(null);
+		initial = null;
+		ply = 0;
+		skippedMoves = 0;
+		MappedLineReader reader = new MappedLineReader(fileName);
+		try {
+			boolean playing = true;
+			CharSequence line;
+			while (playing && (line = reader.nextLine()) != null) {
+				playing = replayLine(line);
+			}
+		} finally {
+			reader.close();
+		}
+		return board;
+	}
+
+	public int getPly() {
+		return ply;
+	}
+
+	public void setSkipInvalid(boolean skipInvalid) {
+		this.skipInvalid = skipInvalid;
+	}
+
+	public int getSkippedMoves() {
+		return skippedMoves;
+	}
+
+	public Board getInitialBoard() {
+		return (initial != null ? initial : board);
+	}
+
+	private boolean replayLine(CharSequence line) {
+		boolean playing = true;
+		switch (finder.lex(line)) {
+		case PLACEMENT:
+			if (ply == 0) {
+				board.addNewPiece(finder.getFirst());
+			}
+			break;
+		case MOVEMENT:
+		case CASTLING:
+			playing = play(finder.getFirst()) && play(finder.getSecond());
+			break;
+		default:
+			break;
+		}
+		return playing;
+	}
+
+	private boolean play(Directive directive) {
+		if (ply == 0) {
+			initial = board.copy();
+		}
+		board.setWhiteToMove(directive.isWhite());
+		long hash = board.getHash();
+		boolean played;
+		if (directive.isCastle()) {
+			played = board.isValidCastle(directive);
+			if (played) {
+				board.castle(directive);
+			}
+		} else {
+			played = board.movePiece(directive);
+		}
+		if (played) {
+			listener.movePlayed(hash, board.getLastMove(), ply++);
+		} else if (skipInvalid) {
+			++skippedMoves;
+			listener.movePlayed(hash, Move.NONE, ply++);
+		}
+		return played || skipInvalid;
+	}
+}
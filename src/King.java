@@ -1,9 +1,9 @@
-import java.util.ArrayList;
 
 public class King extends Piece {
+	private final static int[][] CHANGE_IN_POSITION = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 }, { 1, 1 }, { 1, -1 },
+			{ -1, 1 }, { -1, -1 } };
+	private final static long[] ATTACKS = Bitboards.stepAttacks(CHANGE_IN_POSITION);
 	private boolean isCheck;
-	private Position[] changeInPosition = { new Position(1, 0), new Position(-1, 0), new Position(0, 1),
-			new Position(0, -1), new Position(1, 1), new Position(1, -1), new Position(-1, 1), new Position(-1, -1) };
 
 	public King(PieceType type, boolean isWhite, Position p) {
 		super(type, isWhite, p);
@@ -21,9 +21,9 @@ public class King extends Piece {
 	public Position getQueenSide() {
 		Position location;
 		if (this.isWhite()) {
-			location = new Position(0, 2);
+			location = Position.of(0, 2);
 		} else {
-			location = new Position(7, 2);
+			location = Position.of(7, 2);
 		}
 		return location;
 	}
@@ -31,26 +31,21 @@ public class King extends Piece {
 	public Position getKingSide() {
 		Position location;
 		if (this.isWhite()) {
-			location = new Position(0, 6);
+			location = Position.of(0, 6);
 		} else {
-			location = new Position(7, 6);
+			location = Position.of(7, 6);
 		}
 		return location;
 	}
 
-	public ArrayList<Position> getMovement(Piece[][] board, boolean isCapture) {
-		Position p = this.getCurrentPosition();
-		ArrayList<Position> possiblePositions = new ArrayList<Position>();
-		for (Position pos : changeInPosition) {
-			Position newPos = new Position(p.getRank() + pos.getRank(), p.getFile() + pos.getFile());
-			if (newPos.isValid()) {
-				if ((isCapture && board[newPos.getRank()][newPos.getFile()] != null && this.isWhite() != board[newPos.getRank()][newPos.getFile()].isWhite())
-						|| (board[newPos.getRank()][newPos.getFile()] == null)) {
-					possiblePositions.add(newPos);
-				}
-			}
-		}
-		return possiblePositions;
+	public static long getAttacks(int square) {
+		return ATTACKS[square];
+	}
+
+	@Override
+	public long getMovementMask(long own, long enemy, boolean isCapture) {
+		long moves = ATTACKS[Bitboards.square(getCurrentPosition())] & ~own;
+		return (isCapture ? moves : moves & ~enemy);
 	}
 
 }
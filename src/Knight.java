@@ -1,28 +1,21 @@
-import java.util.ArrayList;
 
 public class Knight extends Piece {
-	private Position[] changeInPosition = { new Position(2, 1), new Position(2, -1), new Position(-2, 1),
-			new Position(-2, -1), new Position(-1, 2), new Position(1, 2), new Position(-1, -2), new Position(1, -2) };
+	private final static int[][] CHANGE_IN_POSITION = { { 2, 1 }, { 2, -1 }, { -2, 1 }, { -2, -1 }, { -1, 2 },
+			{ 1, 2 }, { -1, -2 }, { 1, -2 } };
+	private final static long[] ATTACKS = Bitboards.stepAttacks(CHANGE_IN_POSITION);
 
 	public Knight(PieceType type, boolean isWhite, Position p) {
 		super(type, isWhite, p);
 	}
 
+	public static long getAttacks(int square) {
+		return ATTACKS[square];
+	}
+
 	@Override
-	public ArrayList<Position> getMovement(Piece[][] board, boolean isCapture) {
-		Position p = this.getCurrentPosition();
-		ArrayList<Position> possiblePositions = new ArrayList<Position>();
-		for (Position pos : changeInPosition) {
-			Position newPos = new Position(p.getRank() + pos.getRank(), p.getFile() + pos.getFile());
-			if (newPos.isValid()) {
-				if ((isCapture && board[newPos.getRank()][newPos.getFile()] != null
-						&& this.isWhite() != board[newPos.getRank()][newPos.getFile()].isWhite())
-						|| (board[newPos.getRank()][newPos.getFile()] == null)) {
-					possiblePositions.add(newPos);
-				}
-			}
-		}
-		return possiblePositions;
+	public long getMovementMask(long own, long enemy, boolean isCapture) {
+		long moves = ATTACKS[Bitboards.square(getCurrentPosition())] & ~own;
+		return (isCapture ? moves : moves & ~enemy);
 	}
 
 }
@@ -0,0 +1,4 @@
+
+public enum LineType {
+	EMPTY, PLACEMENT, MOVEMENT, CASTLING, INCORRECT
+}
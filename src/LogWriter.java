@@ -1,23 +1,42 @@
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 
 public class LogWriter {
+	private final static int QUEUE_CAPACITY = 8192;
+	private final static int BATCH_SIZE = 512;
+	private final static long FLUSH_INTERVAL = 50;
+	private final static ArrayList<LogWriter> OPEN_WRITERS = new ArrayList<LogWriter>();
+	private static Thread shutdownHook = null;
 	File resultFile;
 	BufferedWriter results = null;
-	FileWriter innerWriter = null;
-	
+	FileOutputStream innerStream = null;
+	private String[] queue;
+	private int head;
+	private int count;
+	private Thread flusher;
+	private boolean closing = false;
+	private boolean closed = false;
+
 	public LogWriter(){
 		createFile();
 		initializeWriter();
 	}
+
+	public LogWriter(File resultFile) {
+		this.resultFile = resultFile;
+		initializeWriter();
+	}
+
 	private void initializeWriter() {
 		try {
-			innerWriter = new FileWriter(resultFile);
-			results = new BufferedWriter(innerWriter);
+			innerStream = new FileOutputStream(resultFile);
+			results = new BufferedWriter(new OutputStreamWriter(innerStream));
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -31,17 +50,159 @@ public class LogWriter {
 			e.printStackTrace();
 		}
 	}
+
+	public void setAsynchronous(boolean asynchronous) {
+		if (asynchronous && flusher == null) {
+			queue = new String[QUEUE_CAPACITY];
+			flusher = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					flushQueue();
+				}
+			}, "LogWriter " + resultFile.getName());
+			flusher.setDaemon(true);
+			flusher.start();
+			register(this);
+		}
+	}
+
 	public void writeToFile(String log) {
+		if (flusher != null) {
+			enqueue(log);
+		} else if (!closed) {
+			try {
+				results.write(log);
+				results.flush();
+				results.newLine();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	public void closeLogFile() throws IOException{
+		boolean open;
+		synchronized (this) {
+			open = !closed;
+			closed = true;
+		}
+		if (open) {
+			if (flusher != null) {
+				stopFlusher();
+				unregister(this);
+			}
+			results.flush();
+			innerStream.getFD().sync();
+			results.close();
+		}
+	}
+
+	private static void register(LogWriter writer) {
+		synchronized (OPEN_WRITERS) {
+			if (shutdownHook == null) {
+				shutdownHook = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						closeOpenWriters();
+					}
+				}, "LogWriter shutdown");
+				Runtime.getRuntime().addShutdownHook(shutdownHook);
+			}
+			OPEN_WRITERS.add(writer);
+		}
+	}
+
+	private static void unregister(LogWriter writer) {
+		synchronized (OPEN_WRITERS) {
+			OPEN_WRITERS.remove(writer);
+		}
+	}
+
+	private static void closeOpenWriters() {
+		ArrayList<LogWriter> writers;
+		synchronized (OPEN_WRITERS) {
+			writers = new ArrayList<LogWriter>(OPEN_WRITERS);
+		}
+		for (LogWriter writer : writers) {
+			try {
+				writer.closeLogFile();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private synchronized void enqueue(String log) {
+		boolean interrupted = false;
+		while (count == queue.length && !closing) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (!closing) {
+			queue[(head + count) % queue.length] = log;
+			++count;
+			if (count == 1 || count == BATCH_SIZE) {
+				notifyAll();
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void flushQueue() {
+		String[] batch = new String[queue.length];
+		boolean running = true;
+		while (running) {
+			int size = 0;
+			synchronized (this) {
+				try {
+					while (count == 0 && !closing) {
+						wait();
+					}
+					if (count < BATCH_SIZE && !closing) {
+						wait(FLUSH_INTERVAL);
+					}
+				} catch (InterruptedException e) {
+					closing = true;
+				}
+				for (; count > 0; --count) {
+					batch[size++] = queue[head];
+					queue[head] = null;
+					head = (head + 1) % queue.length;
+				}
+				running = !closing;
+				notifyAll();
+			}
+			writeBatch(batch, size);
+		}
+	}
+
+	private void writeBatch(String[] batch, int size) {
 		try {
-			results.write(log);
+			for (int i = 0; i < size; ++i) {
+				results.write(batch[i]);
+				results.newLine();
+				batch[i] = null;
+			}
 			results.flush();
-			results.newLine();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
-	
-	public void closeLogFile() throws IOException{
-			results.close();
+
+	private void stopFlusher() {
+		synchronized (this) {
+			closing = true;
+			notifyAll();
+		}
+		try {
+			flusher.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
 	}
 }
@@ -1,14 +1,290 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
 public class Main {
+	private final static String USAGE = "Usage: java Main [file.chess|file.pgn] [options]\n"
+			+ "  -engine white|black|both  -movetime ms  -nodes n  -hash mb  -threads n\n"
+			+ "  -book file  -bookdepth plies  -tablebases dir  -annotate  -snapshot  -follow  -asynclog\n"
+			+ "  -batch dir|glob  -logdir dir\n"
+			+ "  -buildbook games book  -generatetablebases dir  -convert games archive  -replay archive\n"
+			+ "  -index games index  -query index game";
 
 	public static void main(String[] args) {
 		Translator worker;
-		if (args.length > 0) {
-			worker = new Translator(args[0], true);
+		String fileName = null;
+		String engineColor = null;
+		long moveTime = 1000;
+		long nodes = 0;
+		int hashMegabytes = 16;
+		int threads = 1;
+		boolean annotate = false;
+		boolean snapshots = false;
+		boolean follow = false;
+		boolean asynchronousLog = false;
+		String bookName = null;
+		String tablebaseDirectory = null;
+		String batch = null;
+		String logDirectory = "src";
+		int bookDepth = OpeningBook.DEFAULT_DEPTH;
+		String command = null;
+		String[] operands = null;
+		String error = null;
+		for (int i = 0; i < args.length && error == null; ++i) {
+			switch (args[i]) {
+			case "-engine":
+				engineColor = args[++i].toLowerCase();
+				if (!engineColor.equals("white") && !engineColor.equals("black") && !engineColor.equals("both")) {
+					error = "Invalid engine side [" + args[i] + "]. Expected white, black or both.";
+				}
+				break;
+			case "-movetime":
+				moveTime = Long.parseLong(args[++i]);
+				break;
+			case "-nodes":
+				nodes = Long.parseLong(args[++i]);
+				break;
+			case "-hash":
+				hashMegabytes = Integer.parseInt(args[++i]);
+				break;
+			case "-threads":
+				threads = Integer.parseInt(args[++i]);
+				break;
+			case "-book":
+				bookName = args[++i];
+				break;
+			case "-bookdepth":
+				bookDepth = Integer.parseInt(args[++i]);
+				break;
+			case "-buildbook":
+				command = args[i];
+				operands = new String[] { args[++i], args[++i] };
+				break;
+			case "-tablebases":
+				tablebaseDirectory = args[++i];
+				break;
+			case "-generatetablebases":
+				command = args[i];
+				operands = new String[] { args[++i] };
+				break;
+			case "-batch":
+				batch = args[++i];
+				break;
+			case "-logdir":
+				logDirectory = args[++i];
+				break;
+			case "-convert":
+				command = args[i];
+				operands = new String[] { args[++i], args[++i] };
+				break;
+			case "-replay":
+				command = args[i];
+				operands = new String[] { args[++i] };
+				break;
+			case "-index":
+			case "-query":
+				command = args[i];
+				operands = new String[] { args[++i], args[++i] };
+				break;
+			case "-asynclog":
+				asynchronousLog = true;
+				break;
+			case "-follow":
+				follow = true;
+				break;
+			case "-snapshot":
+				snapshots = true;
+				break;
+			case "-annotate":
+				annotate = true;
+				break;
+			default:
+				if (args[i].startsWith("-")) {
+					error = "Unknown option [" + args[i] + "].";
+				} else {
+					fileName = args[i];
+				}
+				break;
+			}
+		}
+		if (error != null) {
+			System.err.println(error);
+			System.err.println(USAGE);
+			return;
+		}
+		if (command != null) {
+			runCommand(command, operands, threads, bookDepth);
+			return;
+		}
+		if (batch != null) {
+			translateBatch(batch, logDirectory, threads, asynchronousLog);
+			return;
+		}
+		if (fileName != null) {
+			worker = new Translator(fileName, true);
 		} else {
 			worker = new Translator(null, false);
 		}
+		if (engineColor != null) {
+			worker.setEngine(!engineColor.equals("black"), !engineColor.equals("white"), moveTime, nodes,
+					hashMegabytes, threads);
+		}
+		if (bookName != null) {
+			worker.setBook(bookName);
+		}
+		if (tablebaseDirectory != null) {
+			worker.setTablebases(tablebaseDirectory);
+		}
+		worker.setAnnotate(annotate);
+		worker.setSnapshots(snapshots);
+		worker.setAsynchronousLog(asynchronousLog);
 
-		worker.translate();
+		if (follow) {
+			worker.follow();
+		} else {
+			worker.translate();
+		}
+	}
+
+	private static void runCommand(String command, String[] operands, int threads, int bookDepth) {
+		switch (command) {
+		case "-buildbook":
+			buildBook(operands[0], operands[1], bookDepth);
+			break;
+		case "-generatetablebases":
+			generateTablebases(operands[0], threads);
+			break;
+		case "-convert":
+			convertGames(operands[0], operands[1]);
+			break;
+		case "-replay":
+			replayArchive(operands[0]);
+			break;
+		case "-index":
+			buildIndex(operands[0], operands[1], threads);
+			break;
+		case "-query":
+			queryIndex(operands[0], operands[1]);
+			break;
+		default:
+			break;
+		}
+	}
+
+	private static void buildBook(String directory, String output, int depth) {
+		try {
+			long entries = OpeningBook.build(new File(directory), new File(output), depth);
+			System.out.println("Built opening book [" + output + "] with " + entries + " entries.");
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static void translateBatch(String games, String logDirectory, int threads, boolean asynchronousLog) {
+		BatchTranslator batch = new BatchTranslator(threads, new File(logDirectory));
+		batch.setAsynchronousLog(asynchronousLog);
+		try {
+			for (String line : batch.translate(BatchTranslator.findGames(games))) {
+				System.out.println(line);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			batch.shutdown();
+		}
+	}
+
+	private static void convertGames(String games, String output) {
+		try {
+			for (String line : GameArchive.convert(BatchTranslator.findGames(games, "*.chess"), new File(output))) {
+				System.out.println(line);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static void replayArchive(String fileName) {
+		try {
+			GameArchive archive = new GameArchive(fileName);
+			Board board = new Board(null);
+			long start = System.currentTimeMillis();
+			int games = 0;
+			long plies = 0;
+			int stopped = 0;
+			while (archive.nextGame(board)) {
+				int played = archive.replay(board, null);
+				if (played < archive.getMoveCount()) {
+					System.out.println("Game " + (games + 1) + " stopped at illegal ply " + (played + 1) + ".");
+					++stopped;
+				}
+				plies += played;
+				++games;
+			}
+			archive.close();
+			long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+			System.out.println("Replayed " + games + " game(s), " + plies + " ply(s) in " + elapsed + "ms ("
+					+ (plies * 1000 / elapsed) + " plies/sec). " + stopped + " game(s) stopped early.");
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static void buildIndex(String games, String output, int threads) {
+		try {
+			long start = System.currentTimeMillis();
+			ArrayList<File> files = BatchTranslator.findGames(games, "*.chess");
+			long positions = PositionIndex.build(files, new File(output), threads);
+			System.out.println("Indexed " + positions + " position(s) from " + files.size() + " game(s) into ["
+					+ output + "] in " + (System.currentTimeMillis() - start) + "ms.");
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static void queryIndex(String indexName, String game) {
+		try {
+			final PositionIndex index = new PositionIndex(indexName);
+			GameReplayer replayer = new GameReplayer(new GameReplayer.MoveListener() {
+				@Override
+				public void movePlayed(long hash, int move, int ply) {
+					printOccurrences(index, hash, ply);
+				}
+			});
+			Board board = replayer.replay(game);
+			printOccurrences(index, board.getHash(), replayer.getPly());
+			index.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static void printOccurrences(PositionIndex index, long hash, int ply) {
+		long first = index.find(hash);
+		long count = index.count(hash);
+		String line = "Ply " + ply + ": reached " + count + " time(s) in " + index.getGameCount() + " game(s).";
+		if (first != PositionIndex.NOT_FOUND) {
+			line += " First seen in [" + index.getGameName(index.getGame(first)) + "] at ply " + index.getPly(first)
+					+ ".";
+		}
+		System.out.println(line);
+	}
+
+	private static void generateTablebases(String directory, int threads) {
+		TablebaseGenerator generator = new TablebaseGenerator(threads);
+		try {
+			for (PieceType piece : TablebaseGenerator.MATERIAL) {
+				File output = new File(directory, Tablebase.fileName(piece));
+				long start = System.currentTimeMillis();
+				int longest = generator.generate(piece, output);
+				System.out.println("Generated tablebase [" + output + "] in " + (System.currentTimeMillis() - start)
+						+ "ms. Longest win: " + longest + " plies.");
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			generator.shutdown();
+		}
 	}
 
 }
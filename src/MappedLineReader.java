@@ -0,0 +1,156 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+public class MappedLineReader {
+	private final static long WINDOW_SIZE = 64L * 1024 * 1024;
+	private final FileChannel channel;
+	private long size;
+	private final Slice line;
+	private MappedByteBuffer window;
+	private long windowStart;
+	private long position;
+	private final CRC32 prefix = new CRC32();
+	private long prefixEnd = 0;
+
+	public MappedLineReader(String fileName) throws IOException {
+		channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+		size = channel.size();
+		line = new Slice();
+		position = 0;
+		map(0, WINDOW_SIZE);
+	}
+
+	public CharSequence nextLine() throws IOException {
+		CharSequence next = null;
+		if (position < windowStart) {
+			map(position, WINDOW_SIZE);
+		}
+		if (position < size) {
+			int end = findLineEnd();
+			while (end < 0) {
+				map(position, Math.max(WINDOW_SIZE, (windowStart + window.limit() - position) * 2));
+				end = findLineEnd();
+			}
+			int start = (int) (position - windowStart);
+			line.set(window, start, end - start);
+			position = windowStart + end;
+			if (position < size && byteAt(position) == '\r') {
+				++position;
+			}
+			if (position < size && byteAt(position) == '\n') {
+				++position;
+			}
+			next = line;
+		}
+		return next;
+	}
+
+	public long getPosition() {
+		return position;
+	}
+
+	public long size() {
+		return size;
+	}
+
+	public long refresh() throws IOException {
+		size = channel.size();
+		return size;
+	}
+
+	public void seek(long offset) throws IOException {
+		position = offset;
+		map(offset, WINDOW_SIZE);
+	}
+
+	public boolean atLineStart() throws IOException {
+		return position == 0 || byteAt(position - 1) == '\n' || byteAt(position - 1) == '\r';
+	}
+
+	public long checksum(long end) throws IOException {
+		if (end < prefixEnd) {
+			prefix.reset();
+			prefixEnd = 0;
+		}
+		while (prefixEnd < end) {
+			long length = Math.min(end - prefixEnd, WINDOW_SIZE);
+			prefix.update(channel.map(FileChannel.MapMode.READ_ONLY, prefixEnd, length));
+			prefixEnd += length;
+		}
+		return prefix.getValue();
+	}
+
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private int findLineEnd() {
+		int end = (int) (position - windowStart);
+		int limit = window.limit();
+		while (end < limit && window.get(end) != '\n' && window.get(end) != '\r') {
+			++end;
+		}
+		return (end < limit || windowStart + limit == size ? end : -1);
+	}
+
+	private byte byteAt(long index) throws IOException {
+		if (index < windowStart || index >= windowStart + window.limit()) {
+			map(index, WINDOW_SIZE);
+		}
+		return window.get((int) (index - windowStart));
+	}
+
+	private void map(long start, long length) throws IOException {
+		windowStart = start;
+		window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(Math.min(length, Integer.MAX_VALUE),
+				size - start));
+	}
+
+	private static class Slice implements CharSequence {
+		private MappedByteBuffer buffer;
+		private int offset;
+		private int length;
+
+		private Slice() {
+		}
+
+		private Slice(MappedByteBuffer buffer, int offset, int length) {
+			set(buffer, offset, length);
+		}
+
+		private void set(MappedByteBuffer buffer, int offset, int length) {
+			this.buffer = buffer;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			return (char) (buffer.get(offset + index) & 0xFF);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return new Slice(buffer, offset + start, end - start);
+		}
+
+		@Override
+		public String toString() {
+			byte[] bytes = new byte[length];
+			for (int i = 0; i < length; ++i) {
+				bytes[i] = buffer.get(offset + i);
+			}
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,41 @@
+
+public final class Move {
+	public final static int NONE = 0;
+	public final static int CAPTURE = 1;
+	public final static int KING_SIDE_CASTLE = 2;
+	public final static int QUEEN_SIDE_CASTLE = 4;
+	private final static int SQUARE_MASK = 0x3F;
+	private final static int TO_SHIFT = 6;
+	private final static int FLAG_SHIFT = 12;
+
+	private Move() {
+	}
+
+	public static int encode(int from, int to, int flags) {
+		return from | (to << TO_SHIFT) | (flags << FLAG_SHIFT);
+	}
+
+	public static int from(int move) {
+		return move & SQUARE_MASK;
+	}
+
+	public static int to(int move) {
+		return (move >>> TO_SHIFT) & SQUARE_MASK;
+	}
+
+	public static int flags(int move) {
+		return move >>> FLAG_SHIFT;
+	}
+
+	public static boolean isCapture(int move) {
+		return (flags(move) & CAPTURE) != 0;
+	}
+
+	public static boolean isCastle(int move) {
+		return (flags(move) & (KING_SIDE_CASTLE | QUEEN_SIDE_CASTLE)) != 0;
+	}
+
+	public static boolean isKingSideCastle(int move) {
+		return (flags(move) & KING_SIDE_CASTLE) != 0;
+	}
+}
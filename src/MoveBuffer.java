@@ -0,0 +1,48 @@
+
+public class MoveBuffer {
+	private final static int DEFAULT_CAPACITY = 256;
+	private int[] moves;
+	private int size;
+
+	public MoveBuffer() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public MoveBuffer(int capacity) {
+		moves = new int[capacity];
+		size = 0;
+	}
+
+	public void add(int move) {
+		if (size == moves.length) {
+			int[] larger = new int[moves.length * 2];
+			System.arraycopy(moves, 0, larger, 0, size);
+			moves = larger;
+		}
+		moves[size++] = move;
+	}
+
+	public int get(int index) {
+		return moves[index];
+	}
+
+	public void set(int index, int move) {
+		moves[index] = move;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void truncate(int newSize) {
+		size = newSize;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+}
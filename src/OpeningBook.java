@@ -0,0 +1,157 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+public class OpeningBook {
+	public final static int DEFAULT_DEPTH = 24;
+	private final static int MAGIC = 0x43424F4B;
+	private final static int VERSION = 1;
+	private final static int HEADER_SIZE = 16;
+	private final static int ENTRY_SIZE = 12;
+	private final static int MAX_WEIGHT = 0xFFFF;
+	private final static long NOT_FOUND = SortedMappedFile.NOT_FOUND;
+	private final FileChannel channel;
+	private final SortedMappedFile entries;
+	private final long size;
+
+	public OpeningBook(String fileName) throws IOException {
+		channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+		MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+		if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+			channel.close();
+			throw new IOException("Not an opening book: " + fileName);
+		}
+		size = header.getLong(8);
+		entries = new SortedMappedFile(channel, HEADER_SIZE, size, ENTRY_SIZE);
+	}
+
+	public long size() {
+		return size;
+	}
+
+	public long find(long hash) {
+		return entries.find(hash);
+	}
+
+	public long getHash(long index) {
+		return entries.getHash(index);
+	}
+
+	public int getMove(long index) {
+		return entries.getUnsignedShort(index, 8);
+	}
+
+	public int getWeight(long index) {
+		return entries.getUnsignedShort(index, 10);
+	}
+
+	public int getBestMove(long hash) {
+		int best = Move.NONE;
+		int bestWeight = 0;
+		for (long i = find(hash); i != NOT_FOUND && i < size && getHash(i) == hash; ++i) {
+			if (getWeight(i) > bestWeight) {
+				best = getMove(i);
+				bestWeight = getWeight(i);
+			}
+		}
+		return best;
+	}
+
+	public int pickMove(long hash, Random random) {
+		long first = find(hash);
+		int total = 0;
+		for (long i = first; i != NOT_FOUND && i < size && getHash(i) == hash; ++i) {
+			total += getWeight(i);
+		}
+		int move = Move.NONE;
+		if (total > 0) {
+			int choice = random.nextInt(total);
+			long i = first;
+			while (choice >= getWeight(i)) {
+				choice -= getWeight(i);
+				++i;
+			}
+			move = getMove(i);
+		}
+		return move;
+	}
+
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	public static long build(File directory, File output, int maxPly) throws IOException {
+		File[] games = directory.listFiles();
+		if (games == null) {
+			throw new IOException("Not a directory: " + directory);
+		}
+		Collector collector = new Collector(maxPly);
+		GameReplayer replayer = new GameReplayer(collector);
+		for (File game : games) {
+			if (game.isFile() && game.getName().endsWith(".chess")) {
+				replayer.replay(game.getPath());
+			}
+		}
+		SortedMappedFile.sort(collector.hashes, collector.moves, 0, collector.count - 1);
+		return write(output, collector.hashes, collector.moves, collector.count);
+	}
+
+	private static long write(File output, long[] hashes, long[] moves, int count) throws IOException {
+		int unique = 0;
+		for (int i = 0; i < count; ++i) {
+			if (i == 0 || hashes[i] != hashes[i - 1] || moves[i] != moves[i - 1]) {
+				++unique;
+			}
+		}
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(unique);
+			int weight = 0;
+			for (int i = 0; i < count; ++i) {
+				weight = Math.min(weight + 1, MAX_WEIGHT);
+				if (i == count - 1 || hashes[i] != hashes[i + 1] || moves[i] != moves[i + 1]) {
+					out.writeLong(hashes[i]);
+					out.writeShort((int) moves[i]);
+					out.writeShort(weight);
+					weight = 0;
+				}
+			}
+		} finally {
+			out.close();
+		}
+		return unique;
+	}
+
+	private static class Collector implements GameReplayer.MoveListener {
+		private final int maxPly;
+		private long[] hashes = new long[1024];
+		private long[] moves = new long[1024];
+		private int count;
+
+		private Collector(int maxPly) {
+			this.maxPly = maxPly;
+		}
+
+		@Override
+		public void movePlayed(long hash, int move, int ply) {
+			if (ply < maxPly) {
+				if (count == hashes.length) {
+					hashes = Arrays.copyOf(hashes, count * 2);
+					moves = Arrays.copyOf(moves, count * 2);
+				}
+				hashes[count] = hash;
+				moves[count++] = move;
+			}
+		}
+	}
+}
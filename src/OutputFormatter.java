@@ -1,28 +1,48 @@
 
 public class OutputFormatter {
-	public String formatPlacement(String placement) {
-		String formatted = getColor(placement.charAt(1)) + " " + getPiece(placement.charAt(0)) + " was placed at "
-				+ placement.substring(2, 4) + ".";
+	public String formatPlacement(Directive placement) {
+		String formatted = getColor(placement.isWhite()) + " " + getPiece(placement.getPiece().getWhiteType())
+				+ " was placed at " + Directive.squareName(placement.getTo()) + ".";
 		return formatted;
 	}
 
-	public String formatMovement(String movement, boolean isWhite) {
-		String piece = getPiece(movement.charAt(0));
-		String formatted = "Movement: [" + movement + "] " + (isWhite ? "White" : "Black") + " moves " + piece + " at ";
-		if (piece.equals("Pawn")) {
-			formatted += getMovement(movement, true) + ".";
-			formatted += getCapturingPiece(movement, true);
+	public String formatMovement(Directive movement) {
+		String formatted = "Movement: [" + movement + "] " + getColor(movement.isWhite()) + " moves "
+				+ getPiece(movement.getPiece().getWhiteType()) + " at " + getMovement(movement) + ".";
+		formatted += getCapturingPiece(movement);
+		formatted += getEnding(movement);
+		return formatted;
+	}
+
+	public String formatCastle(Directive castle) {
+		return ("Movement: [" + castle + "] " + getColor(castle.isWhite()) + " castles "
+				+ (castle.isKingSide() ? "King" : "Queen") + " side.");
+	}
+
+	public String formatEvaluation(int score, int phase) {
+		return String.format("Evaluation: %+.2f for White (phase %d/%d).", score / 100.0, Math.min(phase,
+				PieceSquareTables.MAX_PHASE), PieceSquareTables.MAX_PHASE);
+	}
+
+	public String formatTablebaseResult(int value) {
+		String result;
+		if (Tablebase.isWin(value)) {
+			result = "wins in " + Tablebase.distance(value) + " plies";
+		} else if (Tablebase.isLoss(value)) {
+			result = "loses in " + Tablebase.distance(value) + " plies";
 		} else {
-			formatted += getMovement(movement, false) + ".";
-			formatted += getCapturingPiece(movement, false);
+			result = "draws";
 		}
-		formatted += getEnding(movement.charAt(movement.length() - 1));
-		return formatted;
+		return result;
+	}
+
+	public String formatGame(int number, String white, String black, String result) {
+		return "Game: [" + number + "] " + white + " vs " + black + " (" + result + ").";
 	}
 
-	public String formatCastle(String castle, boolean isWhite) {
-		return ("Movement: [" + castle + "] " + getColor(isWhite ? 'l' : 'd') + " castles "
-				+ (castle.trim().equals("O-O-O") ? "Queen" : "King") + " side.");
+	public String formatUnresolvedMove(String san, boolean isWhite) {
+		return "Error: Skipping rest of game at [" + san + "] " + getColor(isWhite)
+				+ " has no single legal move matching it.";
 	}
 
 	private String getPiece(char piece) {
@@ -51,32 +71,28 @@ public class OutputFormatter {
 		return pieceString;
 	}
 
-	private String getColor(char color) {
-		return (color == 'l' ? "White" : "Black");
+	private String getColor(boolean isWhite) {
+		return (isWhite ? "White" : "Black");
 	}
 
-	private String getEnding(char end) {
+	private String getEnding(Directive movement) {
 		String ending = "";
-		if (end == '+' || end == '#') {
-			ending = (end == '+' ? " Check!" : " Checkmate!");
+		if (movement.isCheck() || movement.isCheckmate()) {
+			ending = (movement.isCheck() ? " Check!" : " Checkmate!");
 		}
 		return ending;
 	}
 
-	private String getCapturingPiece(String movement, boolean isPawn) {
-		int captureAt = (isPawn ? 2 : 3);
+	private String getCapturingPiece(Directive movement) {
 		String capturedString = "";
-		if (movement.charAt(captureAt) == 'x') {
+		if (movement.isCapture()) {
 			capturedString = " They capture a piece. ";
 		}
 		return capturedString;
 	}
 
-	private String getMovement(String movement, boolean isPawn) {
-		int startingIndex = (isPawn ? 0 : 1);
-		int endingIndex = (isPawn ? 3 : 4);
-		return (movement.substring(startingIndex, startingIndex + 2) + " to "
-				+ movement.substring(endingIndex, endingIndex + 2));
+	private String getMovement(Directive movement) {
+		return (Directive.squareName(movement.getFrom()) + " to " + Directive.squareName(movement.getTo()));
 	}
 
 	public String getIncorrect(String currentLine) {
@@ -92,9 +108,12 @@ public class OutputFormatter {
 		return incorrect;
 	}
 
-	public String formatInvalidMovement(Board board, Position position1, Position position2, boolean isWhiteTurn,
-			String placement, char piece) {
-		String invalid = "Error: Skipping movement [" + placement + "] ";
+	public String formatInvalidMovement(Board board, Directive movement) {
+		Position position1 = movement.getFrom();
+		Position position2 = movement.getTo();
+		boolean isWhiteTurn = movement.isWhite();
+		PieceType piece = movement.getPiece();
+		String invalid = "Error: Skipping movement [" + movement + "] ";
 		if (board.getPiece(position1) == null) {
 			invalid += "There is no piece to move";
 		} else if (!board.isCorrectPiece(piece, position1, isWhiteTurn)) {
@@ -103,14 +122,16 @@ public class OutputFormatter {
 			}else
 			invalid += "This " + board.getPiece(position1).getType().toString().toLowerCase() + " is not the indicated piece.";
 		} else if (board.isOccupied(position2)
-				&& (!board.isCapture(placement) || board.isPlayerPiece(isWhiteTurn, position2))) {
-			if (!board.isCapture(placement)) {
+				&& (!movement.isCapture() || board.isPlayerPiece(isWhiteTurn, position2))) {
+			if (!movement.isCapture()) {
 				invalid += "You are attempting to move to a square that is occupied without capturing.";
 			} else if (board.isPlayerPiece(isWhiteTurn, position2)) {
 				invalid += "You are attempting to place a piece where you already have a piece.";
 			}
-		} else if (!board.isOccupied(position2) && board.isCapture(placement)) {
+		} else if (!board.isOccupied(position2) && movement.isCapture()) {
 			invalid += "You are attempting to capture a square that doesn't have a player on it.";
+		} else if (board.leavesKingInCheck(position1, position2, movement.isCapture())) {
+			invalid += "This movement would leave your king in check.";
 		}else{
 			invalid += "The " + board.getPiece(position1).getType().toString().toLowerCase() + " cannot make that movement.";
 		}
@@ -0,0 +1,86 @@
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ParallelSearch {
+	private final Board board;
+	private final TranspositionTable table;
+	private final int threads;
+	private final ExecutorService pool;
+	private long nodes;
+	private long elapsed;
+	private int completedDepth;
+
+	public ParallelSearch(Board board, TranspositionTable table, int threads) {
+		this.board = board;
+		this.table = table;
+		this.threads = Math.max(threads, 1);
+		pool = (this.threads > 1 ? Executors.newFixedThreadPool(this.threads - 1) : null);
+	}
+
+	public int search(long moveTime, long maxNodes, int maxDepth) {
+		long start = System.currentTimeMillis();
+		table.newSearch();
+		ArrayList<Engine> helpers = new ArrayList<Engine>();
+		ArrayList<Future<Integer>> results = new ArrayList<Future<Integer>>();
+		for (int i = 1; i < threads; ++i) {
+			final Engine helper = new Engine(board.copy(), table);
+			helper.setAgesTable(false);
+			helper.setDepthOffset(i % 2);
+			helpers.add(helper);
+			results.add(pool.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() {
+					return helper.search(0, 0, Engine.MAX_DEPTH);
+				}
+			}));
+		}
+		Engine main = new Engine(board, table);
+		main.setAgesTable(false);
+		int move = main.search(moveTime, maxNodes, maxDepth);
+		nodes = main.getNodes();
+		for (Engine helper : helpers) {
+			helper.stop();
+		}
+		for (int i = 0; i < helpers.size(); ++i) {
+			try {
+				results.get(i).get();
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+			}
+			nodes += helpers.get(i).getNodes();
+		}
+		completedDepth = main.getCompletedDepth();
+		elapsed = Math.max(System.currentTimeMillis() - start, 1);
+		return move;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public long getElapsed() {
+		return elapsed;
+	}
+
+	public long getNodesPerSecond() {
+		return nodes * 1000 / elapsed;
+	}
+
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdownNow();
+		}
+	}
+}
@@ -1,46 +1,33 @@
-import java.util.ArrayList;
 
 public class Pawn extends Piece {
+	private final static long[] WHITE_ATTACKS = Bitboards.stepAttacks(new int[][] { { 1, -1 }, { 1, 1 } });
+	private final static long[] BLACK_ATTACKS = Bitboards.stepAttacks(new int[][] { { -1, -1 }, { -1, 1 } });
 
 	public Pawn(PieceType type, boolean isWhite, Position p) {
 		super(type, isWhite, p);
 	}
 
-	public ArrayList<Position> getMovement(Piece[][] board, boolean isCapture) {
-		ArrayList<Position> movements = getPossibleMovements(board);
-		movements.addAll(getPossibleCaptures(board));
-		return movements;
-
+	public static long getAttacks(int square, boolean isWhite) {
+		return (isWhite ? WHITE_ATTACKS[square] : BLACK_ATTACKS[square]);
 	}
 
-	private ArrayList<Position> getPossibleCaptures(Piece[][] board) {
-		ArrayList<Position> captures = new ArrayList<Position>();
-		int multiplier = (this.isWhite() ? 1 : -1);
-		Position p = this.getCurrentPosition();
-		if (p.getFile() - 1 >= 0 && p.getRank() + 1 < 8 && p.getRank() - 1 >= 0)
-			if (board[p.getRank() + (1 * multiplier)][p.getFile() - 1] != null) {
-				if (board[p.getRank() + (1 * multiplier)][p.getFile() - 1].isWhite() != this.isWhite())
-					captures.add(new Position(p.getRank() + (1 * multiplier), p.getFile() - 1));
-			}
-		if (p.getFile() + 1 < 8 && p.getRank() + 1 < 8 && p.getRank() - 1 >= 0)
-			if (board[p.getRank() + (1 * multiplier)][p.getFile() + 1] != null) {
-				if (board[p.getRank() + (1 * multiplier)][p.getFile() + 1].isWhite() != this.isWhite())
-					captures.add(new Position(p.getRank() + (1 * multiplier), p.getFile() + 1));
-			}
-		return captures;
+	@Override
+	public long getMovementMask(long own, long enemy, boolean isCapture) {
+		int square = Bitboards.square(getCurrentPosition());
+		return getPossibleMovements(square, ~(own | enemy)) | (getAttacks(square, isWhite()) & enemy);
 	}
 
-	private ArrayList<Position> getPossibleMovements(Piece[][] board) {
-		ArrayList<Position> movements = new ArrayList<Position>();
-		Position p = this.getCurrentPosition();
-		int multiplier = (this.isWhite() ? 1 : -1);
-		if (board[p.getRank() + (1 * multiplier)][p.getFile()] == null) {
-			movements.add(new Position(p.getRank() + (1 * multiplier), p.getFile()));
-			if (!hasMoved() && board[p.getRank() + (2 * multiplier)][p.getFile()] == null) {
-				movements.add(new Position(p.getRank() + (2 * multiplier), p.getFile()));
-			}
+	private long getPossibleMovements(int square, long empty) {
+		long single = advance(Bitboards.bit(square)) & empty;
+		long movements = single;
+		if (!hasMoved()) {
+			movements |= advance(single) & empty;
 		}
 		return movements;
 	}
 
+	private long advance(long pawns) {
+		return (isWhite() ? pawns << Bitboards.BOARD_SIZE : pawns >>> Bitboards.BOARD_SIZE);
+	}
+
 }
@@ -0,0 +1,223 @@
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class Perft {
+	public final static String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq -";
+	private final static int MAX_DEPTH = 64;
+	// Counts follow this project's rules, which have no en passant or promotion: start
+	// position depth 5 omits the 258 en passant leaves and the last position has a single
+	// d7xc8 instead of four promotions. The deeper counts come from a separate generator
+	// that reproduces the published figures when both rules are switched back on.
+	private final static Object[][] REFERENCE_POSITIONS = {
+			{ START_POSITION, 1, 20L },
+			{ START_POSITION, 2, 400L },
+			{ START_POSITION, 3, 8902L },
+			{ START_POSITION, 4, 197281L },
+			{ START_POSITION, 5, 4865351L },
+			{ "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -", 1, 48L },
+			{ "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -", 2, 2038L },
+			{ "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -", 3, 97766L },
+			{ "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -", 1, 14L },
+			{ "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -", 2, 191L },
+			{ "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -", 3, 2810L },
+			{ "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -", 4, 43087L },
+			{ "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq -", 1, 6L },
+			{ "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq -", 2, 228L },
+			{ "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq -", 3, 8089L },
+			{ "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ -", 1, 41L },
+			{ "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ -", 2, 1383L },
+			{ "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ -", 3, 54015L } };
+	private final ForkJoinPool pool;
+
+	public Perft(int threads) {
+		pool = (threads > 1 ? new ForkJoinPool(threads) : null);
+	}
+
+	public static Board fromFen(String fen) {
+		String[] fields = fen.trim().split("\\s+");
+		Board board = new Board(null);
+		String[] ranks = fields[0].split("/");
+		ArrayList<Position> pawns = new ArrayList<Position>();
+		for (int i = 0; i < ranks.length; ++i) {
+			int rank = Bitboards.BOARD_SIZE - 1 - i;
+			int file = 0;
+			for (char c : ranks[i].toCharArray()) {
+				if (Character.isDigit(c)) {
+					file += c - '0';
+				} else {
+					boolean isWhite = Character.isUpperCase(c);
+					board.addNewPiece(Directive.placement(PieceType.fromChar(c), isWhite, Position.of(rank, file)));
+					if (Character.toUpperCase(c) == 'P' && rank != (isWhite ? 1 : 6)) {
+						pawns.add(Position.of(rank, file));
+					}
+					++file;
+				}
+			}
+		}
+		for (Position pawn : pawns) {
+			board.markMoved(pawn);
+		}
+		String castling = (fields.length > 2 ? fields[2] : "-");
+		removeCastling(board, castling, 'K', Board.WHITE_KING_SIDE, Position.of(0, 7));
+		removeCastling(board, castling, 'Q', Board.WHITE_QUEEN_SIDE, Position.of(0, 0));
+		removeCastling(board, castling, 'k', Board.BLACK_KING_SIDE, Position.of(7, 7));
+		removeCastling(board, castling, 'q', Board.BLACK_QUEEN_SIDE, Position.of(7, 0));
+		board.setWhiteToMove(fields.length < 2 || fields[1].equals("w"));
+		return board;
+	}
+
+	private static void removeCastling(Board board, String castling, char right, int flag, Position rook) {
+		if (castling.indexOf(right) < 0 && (board.getCastlingRights() & flag) != 0) {
+			board.markMoved(rook);
+		}
+	}
+
+	public long perft(Board board, int depth) {
+		long nodes;
+		if (pool == null || depth < 2) {
+			nodes = count(board, depth, newBuffers());
+		} else {
+			MoveBuffer moves = new MoveBuffer();
+			board.generateLegalMoves(board.isWhiteToMove(), moves);
+			ArrayList<RootTask> tasks = new ArrayList<RootTask>();
+			for (int i = 0; i < moves.size(); ++i) {
+				tasks.add(new RootTask(board, moves.get(i), depth - 1));
+				pool.execute(tasks.get(i));
+			}
+			nodes = 0;
+			for (RootTask task : tasks) {
+				nodes += task.join();
+			}
+		}
+		return nodes;
+	}
+
+	public long divide(Board board, int depth) {
+		MoveBuffer moves = new MoveBuffer();
+		board.generateLegalMoves(board.isWhiteToMove(), moves);
+		long total = 0;
+		for (int i = 0; i < moves.size(); ++i) {
+			int move = moves.get(i);
+			board.makeMove(move);
+			long nodes = perft(board, depth - 1);
+			board.unmakeMove();
+			System.out.println(formatMove(move) + ": " + nodes);
+			total += nodes;
+		}
+		System.out.println("Moves: " + moves.size() + " Nodes: " + total);
+		return total;
+	}
+
+	public boolean runSuite() {
+		boolean passed = true;
+		for (Object[] reference : REFERENCE_POSITIONS) {
+			String fen = (String) reference[0];
+			int depth = (Integer) reference[1];
+			long expected = (Long) reference[2];
+			long start = System.nanoTime();
+			long nodes = perft(fromFen(fen), depth);
+			long elapsed = System.nanoTime() - start;
+			boolean correct = (nodes == expected);
+			passed &= correct;
+			System.out.println((correct ? "OK   " : "FAIL ") + "depth " + depth + " nodes " + nodes + " expected "
+					+ expected + " " + formatSpeed(nodes, elapsed) + " [" + fen + "]");
+		}
+		return passed;
+	}
+
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	private static long count(Board board, int depth, MoveBuffer[] buffers) {
+		long nodes = 0;
+		if (depth == 0) {
+			nodes = 1;
+		} else {
+			MoveBuffer moves = buffers[depth];
+			moves.clear();
+			board.generateLegalMoves(board.isWhiteToMove(), moves);
+			if (depth == 1) {
+				nodes = moves.size();
+			} else {
+				for (int i = 0; i < moves.size(); ++i) {
+					board.makeMove(moves.get(i));
+					nodes += count(board, depth - 1, buffers);
+					board.unmakeMove();
+				}
+			}
+		}
+		return nodes;
+	}
+
+	private static MoveBuffer[] newBuffers() {
+		MoveBuffer[] buffers = new MoveBuffer[MAX_DEPTH];
+		for (int i = 0; i < MAX_DEPTH; ++i) {
+			buffers[i] = new MoveBuffer();
+		}
+		return buffers;
+	}
+
+	public static String formatMove(int move) {
+		return "" + squareName(Move.from(move)) + (Move.isCapture(move) ? "x" : "-") + squareName(Move.to(move));
+	}
+
+	private static String squareName(int square) {
+		return "" + (char) ('a' + Bitboards.file(square)) + (Bitboards.rank(square) + 1);
+	}
+
+	private static String formatSpeed(long nodes, long nanos) {
+		long millis = Math.max(nanos / 1000000, 1);
+		return "time " + millis + "ms nps " + (nodes * 1000 / millis);
+	}
+
+	private static class RootTask extends RecursiveTask<Long> {
+		private static final long serialVersionUID = 1L;
+		private final Board board;
+		private final int move;
+		private final int depth;
+
+		RootTask(Board board, int move, int depth) {
+			this.board = board.copy();
+			this.move = move;
+			this.depth = depth;
+		}
+
+		@Override
+		protected Long compute() {
+			board.makeMove(move);
+			return count(board, depth, newBuffers());
+		}
+	}
+
+	public static void main(String[] args) {
+		int threads = 1;
+		int depth = 0;
+		boolean divide = false;
+		String fen = START_POSITION;
+		for (int i = 0; i < args.length; ++i) {
+			if (args[i].equals("-threads")) {
+				threads = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-divide")) {
+				divide = true;
+			} else if (args[i].equals("-fen")) {
+				fen = args[++i];
+			} else {
+				depth = Integer.parseInt(args[i]);
+			}
+		}
+		Perft perft = new Perft(threads);
+		if (depth == 0) {
+			perft.runSuite();
+		} else {
+			Board board = fromFen(fen);
+			long start = System.nanoTime();
+			long nodes = (divide ? perft.divide(board, depth) : perft.perft(board, depth));
+			System.out.println("Nodes: " + nodes + " " + formatSpeed(nodes, System.nanoTime() - start));
+		}
+		perft.shutdown();
+	}
+}
@@ -0,0 +1,167 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+public class PgnReader {
+	private final static String[] RESULTS = { "1-0", "0-1", "1/2-1/2", "*" };
+	private final MappedLineReader reader;
+	private final LinkedHashMap<String, String> tags;
+	private final ArrayList<String> moves;
+	private CharSequence pending;
+	private String result;
+	private boolean inComment;
+	private int variationDepth;
+	private int games;
+
+	public PgnReader(MappedLineReader reader) {
+		this.reader = reader;
+		tags = new LinkedHashMap<String, String>();
+		moves = new ArrayList<String>();
+	}
+
+	public boolean nextGame() throws IOException {
+		tags.clear();
+		moves.clear();
+		result = null;
+		inComment = false;
+		variationDepth = 0;
+		boolean started = false;
+		boolean done = false;
+		CharSequence line = (pending != null ? pending : reader.nextLine());
+		pending = null;
+		while (!done && line != null) {
+			int start = skipWhitespace(line, 0);
+			if (!inComment && variationDepth == 0 && start < line.length() && line.charAt(start) == '[') {
+				if (moves.isEmpty()) {
+					readTag(line, start + 1);
+					started = true;
+				} else {
+					pending = line.toString();
+					done = true;
+				}
+			} else if (start < line.length() && line.charAt(0) != '%') {
+				done = readMovetext(line);
+				started |= done || !moves.isEmpty();
+			}
+			if (!done) {
+				line = reader.nextLine();
+			}
+		}
+		if (started) {
+			++games;
+		}
+		return started;
+	}
+
+	public String getTag(String name) {
+		String value = tags.get(name);
+		return (value != null ? value : "?");
+	}
+
+	public LinkedHashMap<String, String> getTags() {
+		return tags;
+	}
+
+	public ArrayList<String> getMoves() {
+		return moves;
+	}
+
+	public String getResult() {
+		return (result != null ? result : getTag("Result"));
+	}
+
+	public int getGameCount() {
+		return games;
+	}
+
+	private void readTag(CharSequence line, int index) {
+		int nameEnd = index;
+		while (nameEnd < line.length() && !isWhitespace(line.charAt(nameEnd)) && line.charAt(nameEnd) != '"') {
+			++nameEnd;
+		}
+		int quote = nameEnd;
+		while (quote < line.length() && line.charAt(quote) != '"') {
+			++quote;
+		}
+		StringBuilder value = new StringBuilder();
+		for (int i = quote + 1; i < line.length() && line.charAt(i) != '"'; ++i) {
+			if (line.charAt(i) == '\\' && i + 1 < line.length()) {
+				++i;
+			}
+			value.append(line.charAt(i));
+		}
+		tags.put(line.subSequence(index, nameEnd).toString(), value.toString());
+	}
+
+	private boolean readMovetext(CharSequence line) {
+		boolean done = false;
+		int i = 0;
+		while (i < line.length() && !done) {
+			char c = line.charAt(i);
+			if (inComment) {
+				inComment = (c != '}');
+				++i;
+			} else if (c == ';') {
+				i = line.length();
+			} else if (c == '{' || c == '(' || c == ')' || isWhitespace(c)) {
+				inComment = (c == '{');
+				variationDepth += (c == '(' ? 1 : (c == ')' && variationDepth > 0 ? -1 : 0));
+				++i;
+			} else {
+				int end = i;
+				while (end < line.length() && !isDelimiter(line.charAt(end))) {
+					++end;
+				}
+				if (variationDepth == 0) {
+					done = readToken(line.subSequence(i, end).toString());
+				}
+				i = end;
+			}
+		}
+		return done;
+	}
+
+	private boolean readToken(String token) {
+		boolean done = false;
+		for (String outcome : RESULTS) {
+			if (token.equals(outcome)) {
+				result = outcome;
+				done = true;
+			}
+		}
+		if (!done && token.charAt(0) != '$') {
+			int start = 0;
+			if (!token.startsWith("0-0")) {
+				while (start < token.length() && Character.isDigit(token.charAt(start))) {
+					++start;
+				}
+				while (start < token.length() && token.charAt(start) == '.') {
+					++start;
+				}
+			}
+			int end = token.length();
+			while (end > start && (token.charAt(end - 1) == '!' || token.charAt(end - 1) == '?')) {
+				--end;
+			}
+			if (end > start) {
+				moves.add(token.substring(start, end));
+			}
+		}
+		return done;
+	}
+
+	private int skipWhitespace(CharSequence s, int index) {
+		while (index < s.length() && isWhitespace(s.charAt(index))) {
+			++index;
+		}
+		return index;
+	}
+
+	private boolean isDelimiter(char c) {
+		return isWhitespace(c) || c == '{' || c == '}' || c == '(' || c == ')' || c == ';';
+	}
+
+	private boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+}
@@ -30,10 +30,50 @@ public abstract class Piece {
 	public void setHasMoved(){
 		hasMoved = true;
 	}
+	public void setHasMoved(boolean hasMoved){
+		this.hasMoved = hasMoved;
+	}
 	@Override
 	public String toString() {
 		return "" + (isWhite? type.getWhiteType(): type.getBlackType());
 	}
 	
-	public abstract ArrayList<Position> getMovement(Piece[][] board, boolean isCapture);	
+	public abstract long getMovementMask(long own, long enemy, boolean isCapture);
+
+	public void generateMoves(long own, long enemy, boolean isCapture, MoveBuffer moves) {
+		generateMoves(own, enemy, isCapture, ~0L, moves);
+	}
+
+	public void generateMoves(long own, long enemy, boolean isCapture, long targets, MoveBuffer moves) {
+		int from = Bitboards.square(currentPosition);
+		for (long mask = getMovementMask(own, enemy, isCapture) & targets; mask != 0;
+				mask = Bitboards.withoutFirst(mask)) {
+			int to = Bitboards.firstSquare(mask);
+			moves.add(Move.encode(from, to, (Bitboards.contains(enemy, to) ? Move.CAPTURE : 0)));
+		}
+	}
+
+	public ArrayList<Position> getMovement(Piece[][] board, boolean isCapture) {
+		long own = 0;
+		long enemy = 0;
+		for (int rank = 0; rank < Bitboards.BOARD_SIZE; ++rank) {
+			for (int file = 0; file < Bitboards.BOARD_SIZE; ++file) {
+				if (board[rank][file] != null) {
+					if (board[rank][file].isWhite() == isWhite) {
+						own |= Bitboards.bit(Bitboards.square(rank, file));
+					} else {
+						enemy |= Bitboards.bit(Bitboards.square(rank, file));
+					}
+				}
+			}
+		}
+		MoveBuffer moves = new MoveBuffer();
+		generateMoves(own, enemy, isCapture, moves);
+		ArrayList<Position> positions = new ArrayList<Position>(moves.size());
+		for (int i = 0; i < moves.size(); ++i) {
+			int to = Move.to(moves.get(i));
+			positions.add(Position.of(to));
+		}
+		return positions;
+	}
 }
@@ -0,0 +1,106 @@
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+public class PieceSquareTables {
+	public final static int MAX_PHASE = 24;
+	private final static String RESOURCE = "PieceSquareTables.txt";
+	private final static int[][] MIDGAME = new int[Bitboards.PIECE_TYPES * 2][Bitboards.SQUARES];
+	private final static int[][] ENDGAME = new int[Bitboards.PIECE_TYPES * 2][Bitboards.SQUARES];
+	private final static int[] PHASE = new int[Bitboards.PIECE_TYPES];
+
+	static {
+		try {
+			load();
+		} catch (Exception e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private PieceSquareTables() {
+	}
+
+	public static int midgame(int pieceIndex, int square) {
+		return MIDGAME[pieceIndex][square];
+	}
+
+	public static int endgame(int pieceIndex, int square) {
+		return ENDGAME[pieceIndex][square];
+	}
+
+	public static int phase(PieceType type) {
+		return PHASE[type.ordinal()];
+	}
+
+	public static int taper(int midgame, int endgame, int phase) {
+		int weight = Math.min(phase, MAX_PHASE);
+		return (midgame * weight + endgame * (MAX_PHASE - weight)) / MAX_PHASE;
+	}
+
+	private static void load() throws Exception {
+		int[][] midgameValues = new int[Bitboards.PIECE_TYPES][];
+		int[][] endgameValues = new int[Bitboards.PIECE_TYPES][];
+		int[] values = new int[Bitboards.PIECE_TYPES * 2];
+		BufferedReader reader = new BufferedReader(new InputStreamReader(open()));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.trim().split("\\s+");
+				if (fields[0].isEmpty() || fields[0].startsWith("//")) {
+					continue;
+				}
+				if (fields[0].equals("VALUE")) {
+					PieceType type = PieceType.valueOf(fields[1]);
+					values[type.ordinal() * 2] = Integer.parseInt(fields[2]);
+					values[type.ordinal() * 2 + 1] = Integer.parseInt(fields[3]);
+				} else if (fields[0].equals("PHASE")) {
+					PHASE[PieceType.valueOf(fields[1]).ordinal()] = Integer.parseInt(fields[2]);
+				} else {
+					PieceType type = PieceType.valueOf(fields[0]);
+					int[] table = readTable(reader);
+					if (fields[1].equals("MG")) {
+						midgameValues[type.ordinal()] = table;
+					} else {
+						endgameValues[type.ordinal()] = table;
+					}
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		for (PieceType type : PieceType.values()) {
+			for (int square = 0; square < Bitboards.SQUARES; ++square) {
+				int whiteEntry = Bitboards.square(Bitboards.BOARD_SIZE - 1 - Bitboards.rank(square), Bitboards.file(square));
+				int blackEntry = square;
+				int white = Bitboards.pieceIndex(type, true);
+				int black = Bitboards.pieceIndex(type, false);
+				MIDGAME[white][square] = values[type.ordinal() * 2] + midgameValues[type.ordinal()][whiteEntry];
+				ENDGAME[white][square] = values[type.ordinal() * 2 + 1] + endgameValues[type.ordinal()][whiteEntry];
+				MIDGAME[black][square] = -(values[type.ordinal() * 2] + midgameValues[type.ordinal()][blackEntry]);
+				ENDGAME[black][square] = -(values[type.ordinal() * 2 + 1] + endgameValues[type.ordinal()][blackEntry]);
+			}
+		}
+	}
+
+	private static int[] readTable(BufferedReader reader) throws Exception {
+		int[] table = new int[Bitboards.SQUARES];
+		int count = 0;
+		while (count < Bitboards.SQUARES) {
+			String line = reader.readLine().trim();
+			if (!line.isEmpty()) {
+				for (String value : line.split("\\s+")) {
+					table[count++] = Integer.parseInt(value);
+				}
+			}
+		}
+		return table;
+	}
+
+	private static InputStream open() throws Exception {
+		InputStream stream = PieceSquareTables.class.getResourceAsStream("/" + RESOURCE);
+		if (stream == null) {
+			throw new IllegalStateException("Missing resource " + RESOURCE + " on the classpath.");
+		}
+		return stream;
+	}
+}
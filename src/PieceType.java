@@ -1,6 +1,7 @@
 
 public enum PieceType {
 KING('K', 'k'), QUEEN('Q', 'q'), ROOK('R', 'r'), KNIGHT('N', 'n'), BISHOP('B', 'b'), PAWN('P', 'p');
+	private final static PieceType[] TYPES = values();
 	private char whiteType;
 	private char blackType;
 	
@@ -16,4 +17,14 @@ KING('K', 'k'), QUEEN('Q', 'q'), ROOK('R', 'r'), KNIGHT('N', 'n'), BISHOP('B', '
 		return blackType;
 	}
 
+	public static PieceType fromChar(char piece) {
+		PieceType found = PAWN;
+		for (PieceType type : TYPES) {
+			if (type.whiteType == piece || type.blackType == piece) {
+				found = type;
+			}
+		}
+		return found;
+	}
+
 }
@@ -1,12 +1,40 @@
 
-public class Position {
-	int rank;
-	int file;
-	
-	public Position(int rank, int file){
+public final class Position {
+	private final static Position[] SQUARES = new Position[Bitboards.SQUARES];
+	public final static Position QUEEN_SIDE_CASTLE = new Position(-1, -1);
+	public final static Position KING_SIDE_CASTLE = new Position(8, 8);
+	private final int rank;
+	private final int file;
+
+	static {
+		for (int square = 0; square < Bitboards.SQUARES; ++square) {
+			SQUARES[square] = new Position(Bitboards.rank(square), Bitboards.file(square));
+		}
+	}
+
+	private Position(int rank, int file) {
 		this.rank = rank;
 		this.file = file;
 	}
+
+	public static Position of(int rank, int file) {
+		Position position;
+		if (rank >= 0 && rank < Bitboards.BOARD_SIZE && file >= 0 && file < Bitboards.BOARD_SIZE) {
+			position = SQUARES[Bitboards.square(rank, file)];
+		} else if (rank == QUEEN_SIDE_CASTLE.rank && file == QUEEN_SIDE_CASTLE.file) {
+			position = QUEEN_SIDE_CASTLE;
+		} else if (rank == KING_SIDE_CASTLE.rank && file == KING_SIDE_CASTLE.file) {
+			position = KING_SIDE_CASTLE;
+		} else {
+			position = new Position(rank, file);
+		}
+		return position;
+	}
+
+	public static Position of(int square) {
+		return SQUARES[square];
+	}
+
 	public int getRank() {
 		return rank;
 	}
@@ -0,0 +1,256 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class PositionIndex {
+	private final static int MAGIC = 0x43504958;
+	private final static int VERSION = 1;
+	private final static int HEADER_SIZE = 24;
+	private final static int ENTRY_SIZE = 16;
+	private final static int RUN_ENTRIES = 1 << 22;
+	public final static long NOT_FOUND = SortedMappedFile.NOT_FOUND;
+	private final FileChannel channel;
+	private final SortedMappedFile entries;
+	private final long size;
+	private final String[] names;
+
+	public PositionIndex(String fileName) throws IOException {
+		channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+		MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+		if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+			channel.close();
+			throw new IOException("Not a position index: " + fileName);
+		}
+		size = header.getLong(8);
+		entries = new SortedMappedFile(channel, HEADER_SIZE, size, ENTRY_SIZE);
+		channel.position(header.getLong(16));
+		DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+		names = new String[in.readInt()];
+		for (int i = 0; i < names.length; ++i) {
+			names[i] = in.readUTF();
+		}
+	}
+
+	public long size() {
+		return size;
+	}
+
+	public int getGameCount() {
+		return names.length;
+	}
+
+	public long find(long hash) {
+		return entries.find(hash);
+	}
+
+	public long count(long hash) {
+		return entries.count(hash);
+	}
+
+	public long getHash(long index) {
+		return entries.getHash(index);
+	}
+
+	public int getGame(long index) {
+		return entries.getInt(index, 8);
+	}
+
+	public int getPly(long index) {
+		return entries.getInt(index, 12);
+	}
+
+	public String getGameName(int game) {
+		return names[game];
+	}
+
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	public static long build(final ArrayList<File> games, File output, int threads) throws IOException {
+		final File runDirectory = output.getAbsoluteFile().getParentFile();
+		final int workers = Math.max(threads, 1);
+		final ArrayList<File> runs = new ArrayList<File>();
+		ExecutorService pool = Executors.newFixedThreadPool(workers);
+		ArrayList<Future<Void>> results = new ArrayList<Future<Void>>();
+		for (int i = 0; i < workers; ++i) {
+			final int first = i;
+			results.add(pool.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws IOException {
+					Collector collector = new Collector(runDirectory, runs);
+					GameReplayer replayer = new GameReplayer(collector);
+					for (int game = first; game < games.size() && !Thread.currentThread().isInterrupted();
+							game += workers) {
+						collector.game = game;
+						Board board = replayer.replay(games.get(game).getPath());
+						collector.movePlayed(board.getHash(), Move.NONE, replayer.getPly());
+					}
+					collector.spill();
+					return null;
+				}
+			}));
+		}
+		try {
+			for (Future<Void> result : results) {
+				result.get();
+			}
+			return merge(runs, games, output);
+		} catch (InterruptedException | ExecutionException e) {
+			throw new IOException("Could not index games.", e);
+		} finally {
+			stopWorkers(pool, results);
+			for (File run : runs) {
+				run.delete();
+			}
+		}
+	}
+
+	private static void stopWorkers(ExecutorService pool, ArrayList<Future<Void>> results) {
+		for (Future<Void> result : results) {
+			result.cancel(true);
+		}
+		pool.shutdownNow();
+		try {
+			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static long merge(ArrayList<File> runs, ArrayList<File> games, File output) throws IOException {
+		long count = 0;
+		PriorityQueue<RunReader> queue = new PriorityQueue<RunReader>();
+		for (File run : runs) {
+			count += run.length() / ENTRY_SIZE;
+			RunReader reader = new RunReader(run);
+			if (reader.next()) {
+				queue.add(reader);
+			}
+		}
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(count);
+			out.writeLong(HEADER_SIZE + count * ENTRY_SIZE);
+			while (!queue.isEmpty()) {
+				RunReader reader = queue.poll();
+				out.writeLong(reader.hash);
+				out.writeLong(reader.location);
+				if (reader.next()) {
+					queue.add(reader);
+				}
+			}
+			out.writeInt(games.size());
+			for (File game : games) {
+				out.writeUTF(game.getPath());
+			}
+		} finally {
+			out.close();
+			for (RunReader reader : queue) {
+				reader.in.close();
+			}
+		}
+		return count;
+	}
+
+	private static class Collector implements GameReplayer.MoveListener {
+		private final File directory;
+		private final ArrayList<File> runs;
+		private long[] hashes = new long[1024];
+		private long[] locations = new long[1024];
+		private int count;
+		private int game;
+
+		private Collector(File directory, ArrayList<File> runs) {
+			this.directory = directory;
+			this.runs = runs;
+		}
+
+		@Override
+		public void movePlayed(long hash, int move, int ply) {
+			if (count == hashes.length) {
+				hashes = Arrays.copyOf(hashes, count * 2);
+				locations = Arrays.copyOf(locations, count * 2);
+			}
+			hashes[count] = hash;
+			locations[count++] = ((long) game << 32) | ply;
+			if (count == RUN_ENTRIES) {
+				try {
+					spill();
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		}
+
+		private void spill() throws IOException {
+			if (count > 0) {
+				SortedMappedFile.sort(hashes, locations, 0, count - 1);
+				File run = File.createTempFile("positions", ".run", directory);
+				synchronized (runs) {
+					runs.add(run);
+				}
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run)));
+				try {
+					for (int i = 0; i < count; ++i) {
+						out.writeLong(hashes[i]);
+						out.writeLong(locations[i]);
+					}
+				} finally {
+					out.close();
+				}
+				count = 0;
+			}
+		}
+	}
+
+	private static class RunReader implements Comparable<RunReader> {
+		private final DataInputStream in;
+		private long remaining;
+		private long hash;
+		private long location;
+
+		private RunReader(File run) throws IOException {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(run)));
+			remaining = run.length() / ENTRY_SIZE;
+		}
+
+		private boolean next() throws IOException {
+			boolean available = remaining > 0;
+			if (available) {
+				hash = in.readLong();
+				location = in.readLong();
+				--remaining;
+			} else {
+				in.close();
+			}
+			return available;
+		}
+
+		@Override
+		public int compareTo(RunReader other) {
+			return SortedMappedFile.compare(hash, location, other.hash, other.location);
+		}
+	}
+}
@@ -0,0 +1,79 @@
+
+public class SanResolver {
+	private final static String CASTLE = "O-O";
+	private final static String LONG_CASTLE = "O-O-O";
+	private final MoveBuffer moves = new MoveBuffer();
+
+	public int resolve(Board board, String san) {
+		String text = san.replace('0', 'O');
+		int end = text.length();
+		while (end > 0 && (text.charAt(end - 1) == '+' || text.charAt(end - 1) == '#')) {
+			--end;
+		}
+		text = text.substring(0, end);
+		boolean isWhite = board.isWhiteToMove();
+		moves.clear();
+		board.generateLegalMoves(isWhite, moves);
+		int found = Move.NONE;
+		if (text.equals(CASTLE) || text.equals(LONG_CASTLE)) {
+			boolean isKingSide = text.equals(CASTLE);
+			for (int i = 0; i < moves.size(); ++i) {
+				int move = moves.get(i);
+				if (Move.isCastle(move) && Move.isKingSideCastle(move) == isKingSide) {
+					found = move;
+				}
+			}
+		} else if (text.length() >= 2 && text.indexOf('=') < 0) {
+			found = resolvePieceMove(board, text, isWhite);
+		}
+		return found;
+	}
+
+	private int resolvePieceMove(Board board, String text, boolean isWhite) {
+		PieceType piece = PieceType.PAWN;
+		int start = 0;
+		if ("KQRBN".indexOf(text.charAt(0)) >= 0) {
+			piece = PieceType.fromChar(text.charAt(0));
+			start = 1;
+		}
+		int to = square(text, text.length() - 2);
+		int file = -1;
+		int rank = -1;
+		boolean valid = (to >= 0);
+		for (int i = start; i < text.length() - 2 && valid; ++i) {
+			char c = text.charAt(i);
+			if (c >= 'a' && c <= 'h') {
+				file = c - 'a';
+			} else if (c >= '1' && c <= '8') {
+				rank = c - '1';
+			} else {
+				valid = (c == 'x' || c == '-');
+			}
+		}
+		long pieces = board.getPieces(piece, isWhite);
+		int found = Move.NONE;
+		int matches = 0;
+		for (int i = 0; i < moves.size() && valid; ++i) {
+			int move = moves.get(i);
+			int from = Move.from(move);
+			if (!Move.isCastle(move) && Move.to(move) == to && Bitboards.contains(pieces, from)
+					&& (file < 0 || Bitboards.file(from) == file) && (rank < 0 || Bitboards.rank(from) == rank)) {
+				found = move;
+				++matches;
+			}
+		}
+		return (matches == 1 ? found : Move.NONE);
+	}
+
+	private int square(String text, int index) {
+		int square = -1;
+		if (index >= 0) {
+			char file = text.charAt(index);
+			char rank = text.charAt(index + 1);
+			if (file >= 'a' && file <= 'h' && rank >= '1' && rank <= '8') {
+				square = Bitboards.square(rank - '1', file - 'a');
+			}
+		}
+		return square;
+	}
+}
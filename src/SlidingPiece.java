@@ -0,0 +1,14 @@
+public abstract class SlidingPiece extends Piece {
+
+	public SlidingPiece(PieceType type, boolean isWhite, Position currentPosition) {
+		super(type, isWhite, currentPosition);
+	}
+
+	public abstract long getAttacks(long occupied);
+
+	@Override
+	public long getMovementMask(long own, long enemy, boolean isCapture) {
+		long attacks = getAttacks(own | enemy) & ~own;
+		return (isCapture ? attacks : attacks & ~enemy);
+	}
+}
@@ -0,0 +1,111 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class SortedMappedFile {
+	public final static long NOT_FOUND = -1;
+	private final static long SEGMENT_BYTES = 1L << 30;
+	private final MappedByteBuffer[] segments;
+	private final long segmentEntries;
+	private final int entrySize;
+	private final long size;
+
+	public SortedMappedFile(FileChannel channel, long start, long size, int entrySize) throws IOException {
+		this.size = size;
+		this.entrySize = entrySize;
+		segmentEntries = SEGMENT_BYTES / entrySize;
+		segments = new MappedByteBuffer[(int) ((size + segmentEntries - 1) / segmentEntries)];
+		for (int i = 0; i < segments.length; ++i) {
+			long first = i * segmentEntries;
+			long entries = Math.min(segmentEntries, size - first);
+			segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start + first * entrySize, entries * entrySize);
+		}
+	}
+
+	public long size() {
+		return size;
+	}
+
+	public long find(long hash) {
+		long low = bound(hash, false);
+		return (low < size && getHash(low) == hash ? low : NOT_FOUND);
+	}
+
+	public long count(long hash) {
+		return bound(hash, true) - bound(hash, false);
+	}
+
+	public long getHash(long index) {
+		return segment(index).getLong(offset(index));
+	}
+
+	public int getInt(long index, int field) {
+		return segment(index).getInt(offset(index) + field);
+	}
+
+	public int getUnsignedShort(long index, int field) {
+		return segment(index).getShort(offset(index) + field) & 0xFFFF;
+	}
+
+	private long bound(long hash, boolean upper) {
+		long low = 0;
+		long high = size;
+		while (low < high) {
+			long middle = (low + high) >>> 1;
+			long middleHash = getHash(middle);
+			if (middleHash < hash || (upper && middleHash == hash)) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private MappedByteBuffer segment(long index) {
+		return segments[(int) (index / segmentEntries)];
+	}
+
+	private int offset(long index) {
+		return (int) (index % segmentEntries) * entrySize;
+	}
+
+	public static void sort(long[] hashes, long[] keys, int low, int high) {
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			long pivotHash = hashes[middle];
+			long pivotKey = keys[middle];
+			int i = low;
+			int j = high;
+			while (i <= j) {
+				while (compare(hashes[i], keys[i], pivotHash, pivotKey) < 0) {
+					++i;
+				}
+				while (compare(hashes[j], keys[j], pivotHash, pivotKey) > 0) {
+					--j;
+				}
+				if (i <= j) {
+					long hash = hashes[i];
+					hashes[i] = hashes[j];
+					hashes[j] = hash;
+					long key = keys[i];
+					keys[i] = keys[j];
+					keys[j] = key;
+					++i;
+					--j;
+				}
+			}
+			if (j - low < high - i) {
+				sort(hashes, keys, low, j);
+				low = i;
+			} else {
+				sort(hashes, keys, i, high);
+				high = j;
+			}
+		}
+	}
+
+	public static int compare(long hash1, long key1, long hash2, long key2) {
+		return (hash1 != hash2 ? Long.compare(hash1, hash2) : Long.compare(key1, key2));
+	}
+}
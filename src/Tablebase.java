@@ -0,0 +1,115 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class Tablebase {
+	public final static int POSITIONS = 2 * Bitboards.SQUARES * Bitboards.SQUARES * Bitboards.SQUARES;
+	public final static int HEADER_SIZE = 16;
+	public final static int MAGIC = 0x4B584B54;
+	public final static int VERSION = 1;
+	public final static byte DRAW = 0;
+	public final static byte ILLEGAL = Byte.MIN_VALUE;
+	private final static int MIRROR = 56;
+	private final static int DECISIVE = 1000;
+	private final FileChannel channel;
+	private final MappedByteBuffer values;
+	private final PieceType piece;
+
+	public Tablebase(String fileName) throws IOException {
+		channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+		values = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE + POSITIONS);
+		if (values.getInt(0) != MAGIC || values.getInt(4) != VERSION || values.getInt(12) != POSITIONS) {
+			channel.close();
+			throw new IOException("Not a tablebase: " + fileName);
+		}
+		piece = PieceType.values()[values.getInt(8)];
+	}
+
+	public PieceType getPiece() {
+		return piece;
+	}
+
+	public boolean covers(Board board) {
+		boolean covers = false;
+		if (board.getCastlingRights() == 0) {
+			for (boolean strong : new boolean[] { true, false }) {
+				long pieces = board.getPieces(piece, strong);
+				if (board.getPieceCount(strong) == 2 && board.getPieceCount(!strong) == 1
+						&& Bitboards.count(pieces) == 1 && board.getKingSquare(strong) != Board.NO_SQUARE
+						&& board.getKingSquare(!strong) != Board.NO_SQUARE) {
+					covers = (piece != PieceType.PAWN || isPawnConsistent(board, Bitboards.firstSquare(pieces), strong));
+				}
+			}
+		}
+		return covers;
+	}
+
+	public int probe(Board board) {
+		int value = ILLEGAL;
+		if (covers(board)) {
+			boolean strong = (board.getPieceCount(true) == 2);
+			int mirror = (strong ? 0 : MIRROR);
+			value = values.get(HEADER_SIZE + index(board.isWhiteToMove() == strong, board.getKingSquare(strong) ^ mirror,
+					board.getKingSquare(!strong) ^ mirror, Bitboards.firstSquare(board.getPieces(piece, strong)) ^ mirror));
+		}
+		return value;
+	}
+
+	public int getBestMove(Board board, MoveBuffer moves) {
+		int best = Move.NONE;
+		int bestRank = Integer.MIN_VALUE;
+		moves.clear();
+		board.generateLegalMoves(board.isWhiteToMove(), moves);
+		for (int i = 0; i < moves.size(); ++i) {
+			board.makeMove(moves.get(i));
+			int reply = probe(board);
+			board.unmakeMove();
+			int rank = (isLoss(reply) ? DECISIVE - distance(reply) : (isWin(reply) ? distance(reply) - DECISIVE : 0));
+			if (rank > bestRank) {
+				best = moves.get(i);
+				bestRank = rank;
+			}
+		}
+		return best;
+	}
+
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	public static String fileName(PieceType piece) {
+		return "K" + piece.getWhiteType() + "K.tb";
+	}
+
+	public static int index(boolean strongToMove, int strongKing, int weakKing, int piece) {
+		return (((strongToMove ? 0 : 1) * Bitboards.SQUARES + strongKing) * Bitboards.SQUARES + weakKing)
+				* Bitboards.SQUARES + piece;
+	}
+
+	public static byte win(int plies) {
+		return (byte) (plies + 1);
+	}
+
+	public static byte loss(int plies) {
+		return (byte) -(plies + 1);
+	}
+
+	public static boolean isWin(int value) {
+		return value > DRAW;
+	}
+
+	public static boolean isLoss(int value) {
+		return value < DRAW && value != ILLEGAL;
+	}
+
+	public static int distance(int value) {
+		return Math.abs(value) - 1;
+	}
+
+	private static boolean isPawnConsistent(Board board, int square, boolean isWhite) {
+		int home = (isWhite ? 1 : Bitboards.BOARD_SIZE - 2);
+		return board.getPiece(Position.of(square)).hasMoved() == (Bitboards.rank(square) != home);
+	}
+}
@@ -0,0 +1,190 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+public class TablebaseGenerator {
+	public final static PieceType[] MATERIAL = { PieceType.QUEEN, PieceType.ROOK, PieceType.PAWN };
+	private final static byte UNRESOLVED = Byte.MAX_VALUE;
+	private final static int CAPTURE = -1;
+	private final static int[] NO_CHILDREN = {};
+	private final static int SPLIT_SIZE = 4096;
+	private final ForkJoinPool pool;
+	private byte[] values;
+	private int[][] children;
+	private PieceType piece;
+
+	public TablebaseGenerator(int threads) {
+		pool = new ForkJoinPool(Math.max(threads, 1));
+	}
+
+	public int generate(PieceType piece, File output) throws IOException {
+		this.piece = piece;
+		values = new byte[Tablebase.POSITIONS];
+		children = new int[Tablebase.POSITIONS][];
+		pool.invoke(new SetupTask(0, Tablebase.POSITIONS));
+		int plies = 0;
+		int resolved;
+		do {
+			++plies;
+			resolved = pool.invoke(new IterationTask(0, Tablebase.POSITIONS, plies));
+		} while (resolved > 0 && plies < UNRESOLVED - 2);
+		int longest = 0;
+		for (int i = 0; i < values.length; ++i) {
+			if (values[i] == UNRESOLVED) {
+				values[i] = Tablebase.DRAW;
+			} else if (values[i] != Tablebase.ILLEGAL && values[i] != Tablebase.DRAW) {
+				longest = Math.max(longest, Tablebase.distance(values[i]));
+			}
+		}
+		children = null;
+		write(output);
+		return longest;
+	}
+
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	private void write(File output) throws IOException {
+		FileChannel channel = FileChannel.open(output.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+					Tablebase.HEADER_SIZE + Tablebase.POSITIONS);
+			buffer.putInt(Tablebase.MAGIC);
+			buffer.putInt(Tablebase.VERSION);
+			buffer.putInt(piece.ordinal());
+			buffer.putInt(Tablebase.POSITIONS);
+			buffer.put(values);
+			buffer.force();
+		} finally {
+			channel.close();
+		}
+	}
+
+	private void setUp(Board board, MoveBuffer moves, int index) {
+		boolean strongToMove = (index < Tablebase.POSITIONS / 2);
+		int strongKing = (index >>> 12) & (Bitboards.SQUARES - 1);
+		int weakKing = (index >>> 6) & (Bitboards.SQUARES - 1);
+		int square = index & (Bitboards.SQUARES - 1);
+		children[index] = NO_CHILDREN;
+		if (strongKing == weakKing || strongKing == square || weakKing == square
+				|| (piece == PieceType.PAWN && Bitboards.rank(square) == 0)) {
+			values[index] = Tablebase.ILLEGAL;
+		} else {
+			board.clear();
+			board.addNewPiece(Directive.placement(PieceType.KING, true, Position.of(strongKing)));
+			board.addNewPiece(Directive.placement(PieceType.KING, false, Position.of(weakKing)));
+			board.addNewPiece(Directive.placement(piece, true, Position.of(square)));
+			board.markMoved(Position.of(strongKing));
+			board.markMoved(Position.of(weakKing));
+			if (piece != PieceType.PAWN || Bitboards.rank(square) != 1) {
+				board.markMoved(Position.of(square));
+			}
+			board.setWhiteToMove(strongToMove);
+			if (board.isInCheck(!strongToMove)) {
+				values[index] = Tablebase.ILLEGAL;
+			} else {
+				values[index] = UNRESOLVED;
+				moves.clear();
+				board.generateLegalMoves(strongToMove, moves);
+				if (moves.isEmpty()) {
+					values[index] = (board.isInCheck(strongToMove) ? Tablebase.loss(0) : Tablebase.DRAW);
+				} else {
+					children[index] = new int[moves.size()];
+					for (int i = 0; i < moves.size(); ++i) {
+						board.makeMove(moves.get(i));
+						children[index][i] = (board.getPieceCount(true) < 2 ? CAPTURE
+								: Tablebase.index(!strongToMove, board.getKingSquare(true), board.getKingSquare(false),
+										Bitboards.firstSquare(board.getPieces(piece, true))));
+						board.unmakeMove();
+					}
+				}
+			}
+		}
+	}
+
+	private boolean resolve(int index, int plies) {
+		boolean allWins = true;
+		boolean win = false;
+		int longest = 0;
+		for (int child : children[index]) {
+			int value = (child == CAPTURE ? Tablebase.DRAW : values[child]);
+			if (value == UNRESOLVED || value == Tablebase.DRAW || Tablebase.distance(value) >= plies) {
+				allWins = false;
+			} else if (Tablebase.isLoss(value)) {
+				allWins = false;
+				win |= (Tablebase.distance(value) == plies - 1);
+			} else {
+				longest = Math.max(longest, Tablebase.distance(value));
+			}
+		}
+		if (win) {
+			values[index] = Tablebase.win(plies);
+		} else if (allWins) {
+			values[index] = Tablebase.loss(longest + 1);
+		}
+		return win || allWins;
+	}
+
+	private class SetupTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int low;
+		private final int high;
+
+		private SetupTask(int low, int high) {
+			this.low = low;
+			this.high = high;
+		}
+
+		@Override
+		protected void compute() {
+			if (high - low <= SPLIT_SIZE) {
+				Board board = new Board(null);
+				MoveBuffer moves = new MoveBuffer();
+				for (int index = low; index < high; ++index) {
+					setUp(board, moves, index);
+				}
+			} else {
+				int middle = (low + high) >>> 1;
+				invokeAll(new SetupTask(low, middle), new SetupTask(middle, high));
+			}
+		}
+	}
+
+	private class IterationTask extends RecursiveTask<Integer> {
+		private static final long serialVersionUID = 1L;
+		private final int low;
+		private final int high;
+		private final int plies;
+
+		private IterationTask(int low, int high, int plies) {
+			this.low = low;
+			this.high = high;
+			this.plies = plies;
+		}
+
+		@Override
+		protected Integer compute() {
+			int resolved = 0;
+			if (high - low <= SPLIT_SIZE) {
+				for (int index = low; index < high; ++index) {
+					if (values[index] == UNRESOLVED && resolve(index, plies)) {
+						++resolved;
+					}
+				}
+			} else {
+				int middle = (low + high) >>> 1;
+				IterationTask upper = new IterationTask(middle, high, plies);
+				upper.fork();
+				resolved = new IterationTask(low, middle, plies).compute() + upper.join();
+			}
+			return resolved;
+		}
+	}
+}
@@ -1,27 +1,71 @@
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
 
 public class Translator {
 	LogWriter writer;
 	OutputFormatter format;
 	DirectiveFinder finder;
 	boolean movementBegun = false;
-	BufferedReader file = null;
+	MappedLineReader file = null;
 	Board board;
-	DirectiveHandler handler;
 	UserInterface ui;
 	boolean interactionMode = false;
+	ParallelSearch engine;
+	boolean engineWhite = false;
+	boolean engineBlack = false;
+	long engineMoveTime;
+	long engineNodes;
+	boolean annotate = false;
+	OpeningBook book;
+	Random bookRandom = new Random();
+	MoveBuffer bookMoves = new MoveBuffer();
+	ArrayList<Tablebase> tablebases = new ArrayList<Tablebase>();
+	private final static int REPETITION_LIMIT = 3;
+	HashMap<Long, Integer> positionCounts = new HashMap<Long, Integer>();
+	int validMoves = 0;
+	int invalidMoves = 0;
+	int invalidLines = 0;
+	Exception failure;
+	private final static String PGN_EXTENSION = ".pgn";
+	PgnReader pgn;
+	SanResolver resolver = new SanResolver();
+	private final static int SNAPSHOT_INTERVAL = 1000;
+	File snapshotFile;
+	String fileName;
+	boolean following = false;
+	int linesRead = 0;
 
 	public Translator(String fileName, boolean containedFile) {
-		writer = new LogWriter();
+		this(fileName, containedFile, new LogWriter());
+	}
+
+	public Translator(String fileName, LogWriter writer) {
+		this(fileName, true, writer);
+	}
+
+	private Translator(String fileName, boolean containedFile, LogWriter writer) {
+		this.writer = writer;
+		this.fileName = fileName;
 		writer.writeToFile("Process: Log file Initialized.");
 		if (containedFile) {
 			if (initializeReader(fileName)) {
 				writer.writeToFile("Process: Sucessfully opened file [" + fileName + "]");
+				if (fileName.toLowerCase().endsWith(PGN_EXTENSION)) {
+					pgn = new PgnReader(file);
+				}
 
 			} else {
 				writer.writeToFile(
@@ -34,11 +78,53 @@ public class Translator {
 		}
 		format = new OutputFormatter();
 		finder = new DirectiveFinder();
-		handler = new DirectiveHandler();
 		board = new Board(writer);
 		ui = new UserInterface();
 	}
 
+	public void setEngine(boolean playsWhite, boolean playsBlack, long moveTime, long nodes, int hashMegabytes,
+			int threads) {
+		engineWhite = playsWhite;
+		engineBlack = playsBlack;
+		engineMoveTime = moveTime;
+		engineNodes = nodes;
+		engine = new ParallelSearch(board, new TranspositionTable(hashMegabytes), threads);
+	}
+
+	public void setBook(String fileName) {
+		try {
+			book = new OpeningBook(fileName);
+			writer.writeToFile("Process: Opened opening book [" + fileName + "] with " + book.size() + " entries.");
+		} catch (IOException e) {
+			writer.writeToFile("Error: Could not open opening book [" + fileName + "]. " + e.getMessage());
+		}
+	}
+
+	public void setTablebases(String directory) {
+		for (PieceType piece : TablebaseGenerator.MATERIAL) {
+			String fileName = directory + File.separator + Tablebase.fileName(piece);
+			try {
+				tablebases.add(new Tablebase(fileName));
+				writer.writeToFile("Process: Opened tablebase [" + fileName + "]");
+			} catch (IOException e) {
+				writer.writeToFile("Error: Could not open tablebase [" + fileName + "]. " + e.getMessage());
+			}
+		}
+	}
+
+	public void setSnapshots(boolean snapshots) {
+		snapshotFile = (snapshots && pgn == null && !interactionMode ? new File(fileName + BoardSnapshot.EXTENSION)
+				: null);
+	}
+
+	public void setAsynchronousLog(boolean asynchronous) {
+		writer.setAsynchronous(asynchronous);
+	}
+
+	public void setAnnotate(boolean annotate) {
+		this.annotate = annotate;
+	}
+
 	public void translate() {
 		if (!interactionMode) {
 			translateFile();
@@ -50,6 +136,46 @@ public class Translator {
 		shutdown();
 	}
 
+	public void translateOnly() {
+		if (!interactionMode) {
+			translateFile();
+		}
+		board.writeBoard();
+		shutdown();
+	}
+
+	public void follow() {
+		following = (pgn == null);
+		if (!interactionMode) {
+			translateFile();
+		}
+		if (following && !interactionMode) {
+			followFile();
+		}
+		board.writeBoard();
+		shutdown();
+	}
+
+	public boolean isFileOpened() {
+		return !interactionMode;
+	}
+
+	public int getValidMoves() {
+		return validMoves;
+	}
+
+	public int getInvalidMoves() {
+		return invalidMoves;
+	}
+
+	public int getInvalidLines() {
+		return invalidLines;
+	}
+
+	public Exception getFailure() {
+		return failure;
+	}
+
 	public void interactionMode() {
 		boolean quit = false;
 		if (interactionMode) {
@@ -62,6 +188,12 @@ public class Translator {
 			int piece;
 			boolean pieceChosen;
 			boolean isWhite = (count % 2 != 0);
+			if (isEngineTurn(isWhite)) {
+				quit = !playEngineMove(isWhite);
+				++count;
+				board.printBoardToConsole();
+				continue;
+			}
 			ui.inform(isWhite);
 			ArrayList<Piece> pieces = board.getAllPossiblePieces(isWhite);
 			
@@ -72,13 +204,13 @@ public class Translator {
 				quit = true;
 			} else {
 				Piece current = pieces.get(piece - 1);
-				ArrayList<Position> possibleMoves = current.getMovement(board.getBoard(),
+				ArrayList<Position> possibleMoves = board.getPieceMovement(current,
 						(current.getType() == PieceType.PAWN ? false : true));
 				if (current.getType() == PieceType.KING || current.getType() == PieceType.ROOK) {
-					if (board.isValidCastle("O-O-O", isWhite))
-						possibleMoves.add(new Position(-1, -1)); // Queen Side
-					if (board.isValidCastle("O-O", isWhite))
-						possibleMoves.add(new Position(8, 8)); // King Side
+					if (board.isValidCastle(isWhite, false))
+						possibleMoves.add(Position.QUEEN_SIDE_CASTLE);
+					if (board.isValidCastle(isWhite, true))
+						possibleMoves.add(Position.KING_SIDE_CASTLE);
 				}
 				board.printBoardToConsole();
 				int move = ui.determineMove(possibleMoves);
@@ -87,12 +219,7 @@ public class Translator {
 				}else if(move == 1){
 					pieceChosen = false;
 				}	else {
-					String movement = getCompleteMovement(pieces.get(piece - 1), possibleMoves.get(move - 2));
-					if (movement.contains("O")) {
-						board.castle(isWhite, movement);
-						writer.writeToFile(format.formatCastle(movement, isWhite));
-					} else
-						processMovement(movement, isWhite);
+					playMovement(getCompleteMovement(pieces.get(piece - 1), possibleMoves.get(move - 2)));
 				}
 			}
 			}while(!pieceChosen);
@@ -101,155 +228,327 @@ public class Translator {
 			
 			++count;
 			board.printBoardToConsole();
-		} while (!quit && board.isPlayable());
+		} while (!quit && board.isPlayable() && !isRepeated());
 
 		board.writeBoard();
 	}
 
+	private boolean isRepeated() {
+		Integer seen = positionCounts.get(board.getHash());
+		int count = (seen == null ? 1 : seen + 1);
+		positionCounts.put(board.getHash(), count);
+		if (count >= REPETITION_LIMIT) {
+			writer.writeToFile("Process: Draw by threefold repetition.");
+		}
+		return count >= REPETITION_LIMIT;
+	}
+
+	private boolean isEngineTurn(boolean isWhite) {
+		return engine != null && (isWhite ? engineWhite : engineBlack);
+	}
+
+	private boolean playEngineMove(boolean isWhite) {
+		board.setWhiteToMove(isWhite);
+		int move = getBookMove(isWhite);
+		Tablebase tablebase = getTablebase();
+		if (move != Move.NONE) {
+			writer.writeToFile("Process: Engine plays a move from the opening book.");
+		} else if (tablebase != null) {
+			move = tablebase.getBestMove(board, bookMoves);
+			writer.writeToFile("Process: Tablebase says " + (isWhite ? "White " : "Black ")
+					+ format.formatTablebaseResult(tablebase.probe(board)) + ".");
+		} else {
+			move = engine.search(engineMoveTime, engineNodes, Engine.MAX_DEPTH);
+			writer.writeToFile("Process: Engine searched to depth " + engine.getCompletedDepth() + " on "
+					+ engine.getThreads() + " thread(s): " + engine.getNodes() + " nodes in " + engine.getElapsed()
+					+ "ms (" + engine.getNodesPerSecond() + " nodes/sec).");
+		}
+		boolean moved = (move != Move.NONE);
+		if (moved) {
+			Directive movement = toDirective(move);
+			ui.informEngineMove(isWhite, movement.getText());
+			playMovement(movement);
+		} else {
+			writer.writeToFile("Process: " + (isWhite ? "White" : "Black")
+					+ (board.isInCheck(isWhite) ? " is checkmated." : " has no legal moves. Stalemate."));
+		}
+		return moved;
+	}
+
+	private int getBookMove(boolean isWhite) {
+		int move = Move.NONE;
+		if (book != null) {
+			int candidate = book.pickMove(board.getHash(), bookRandom);
+			bookMoves.clear();
+			board.generateLegalMoves(isWhite, bookMoves);
+			for (int i = 0; i < bookMoves.size() && move == Move.NONE; ++i) {
+				if (bookMoves.get(i) == candidate) {
+					move = candidate;
+				}
+			}
+		}
+		return move;
+	}
+
+	private Tablebase getTablebase() {
+		Tablebase found = null;
+		for (Tablebase tablebase : tablebases) {
+			if (found == null && tablebase.covers(board)) {
+				found = tablebase;
+			}
+		}
+		return found;
+	}
+
 	private void setUpBoard() {
+		for (Directive placement : readInitialization()) {
+			processPlacement(placement);
+		}
+	}
+
+	private ArrayList<Directive> readInitialization() {
+		ArrayList<Directive> placements = new ArrayList<Directive>();
 		BufferedReader initializer;
 		try {
 			FileInputStream inputStream = new FileInputStream("src/BoardInitialization.chess");
 			initializer = new BufferedReader(new InputStreamReader(inputStream));
 			while (initializer.ready()) {
-				processPlacement(initializer.readLine().trim());
+				if (finder.lex(initializer.readLine()) == LineType.PLACEMENT) {
+					placements.add(finder.getFirst());
+				}
 			}
+			initializer.close();
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
-
+		return placements;
 	}
 
 	private void translateFile() {
+		if (pgn != null) {
+			translatePgn();
+		} else {
+			translateDirectives();
+		}
+	}
+
+	private void translatePgn() {
+		ArrayList<Directive> initialization = readInitialization();
 		try {
-			while (file.ready()) {
-				String currentLine = getCurrentLine().trim();
-				if (finder.containsComment(currentLine)) {
-					currentLine = finder.removeComment(currentLine).trim();
+			while (pgn.nextGame()) {
+				board.clear();
+				positionCounts.clear();
+				for (Directive placement : initialization) {
+					board.addNewPiece(placement);
 				}
-				if (currentLine.trim().length() > 0) {
-					if (finder.isPlacement(currentLine)) {
-						processPlacement(currentLine);
-					} else if (finder.isMovement(currentLine)) {
-						ArrayList<String> movements = finder.getMovementDirectives(currentLine);
-						processMovement(movements.get(0), true);
-						processMovement(movements.get(1), false);
-					} else if (finder.containsCastle(currentLine)) {
-						processCastling(currentLine);
-
+				writer.writeToFile(format.formatGame(pgn.getGameCount(), pgn.getTag("White"), pgn.getTag("Black"),
+						pgn.getResult()));
+				ArrayList<String> moves = pgn.getMoves();
+				boolean playing = true;
+				for (int i = 0; i < moves.size() && playing; ++i) {
+					int move = resolver.resolve(board, moves.get(i));
+					playing = (move != Move.NONE);
+					if (playing) {
+						processLineAction(toDirective(move));
 					} else {
-						writer.writeToFile(format.getIncorrect(currentLine));
+						++invalidMoves;
+						writer.writeToFile(format.formatUnresolvedMove(moves.get(i), board.isWhiteToMove()));
 					}
 				}
+				board.writeBoard();
 			}
 		} catch (Exception e) {
+			failure = e;
 			e.printStackTrace();
 		}
 	}
 
-	private boolean initializeReader(String fileName) {
-		FileInputStream inputStream;
-		boolean successful = true;
+	private void translateDirectives() {
 		try {
-			inputStream = new FileInputStream(fileName);
-			file = new BufferedReader(new InputStreamReader(inputStream));
-		} catch (FileNotFoundException e) {
-			successful = false;
+			if (snapshotFile != null) {
+				resumeFromSnapshot();
+			}
+			translateAvailableLines();
+			if (snapshotFile != null) {
+				writeSnapshot();
+			}
+		} catch (Exception e) {
+			failure = e;
+			e.printStackTrace();
+		}
+	}
+
+	private void translateAvailableLines() throws IOException {
+		CharSequence currentLine;
+		while ((currentLine = readLine()) != null) {
+			switch (finder.lex(currentLine)) {
+			case PLACEMENT:
+				processPlacement(finder.getFirst());
+				break;
+			case MOVEMENT:
+				processMovement(finder.getFirst());
+				processMovement(finder.getSecond());
+				break;
+			case CASTLING:
+				processCastling(finder.getFirst(), finder.getSecond());
+				break;
+			case INCORRECT:
+				++invalidLines;
+				writer.writeToFile(format.getIncorrect(finder.getLine()));
+				break;
+			default:
+				break;
+			}
+			if (snapshotFile != null && ++linesRead % SNAPSHOT_INTERVAL == 0) {
+				writeSnapshot();
+			}
+		}
+	}
+
+	private CharSequence readLine() throws IOException {
+		long start = file.getPosition();
+		CharSequence line = file.nextLine();
+		if (line != null && following && !file.atLineStart()) {
+			file.seek(start);
+			line = null;
+		}
+		return line;
+	}
+
+	private void followFile() {
+		Path path = Paths.get(fileName).toAbsolutePath();
+		try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+			path.getParent().register(watcher, StandardWatchEventKinds.ENTRY_MODIFY);
+			writer.writeToFile("Process: Following [" + fileName + "] for appended lines.");
+			boolean watching = true;
+			while (watching) {
+				WatchKey key = watcher.take();
+				boolean changed = false;
+				for (WatchEvent<?> event : key.pollEvents()) {
+					changed |= path.getFileName().equals(event.context());
+				}
+				if (changed && file.refresh() < file.getPosition()) {
+					writer.writeToFile("Error: [" + fileName + "] was truncated. Stopping.");
+					watching = false;
+				} else if (changed) {
+					translateAvailableLines();
+					if (snapshotFile != null) {
+						writeSnapshot();
+					}
+				}
+				watching &= key.reset();
+			}
+		} catch (IOException | InterruptedException e) {
+			failure = e;
+			e.printStackTrace();
+		}
+	}
+
+	private void resumeFromSnapshot() throws IOException {
+		BoardSnapshot snapshot = null;
+		if (snapshotFile.exists()) {
+			try {
+				snapshot = BoardSnapshot.read(snapshotFile);
+			} catch (IOException e) {
+				writer.writeToFile("Warning: Ignoring snapshot [" + snapshotFile + "]. It could not be read: "
+						+ e.getMessage());
+				snapshotFile.delete();
+			}
+		}
+		if (snapshot != null) {
+			long offset = snapshot.getOffset();
+			if (offset >= 0 && offset <= file.size() && snapshot.getChecksum() == file.checksum(offset)) {
+				snapshot.restore(board);
+				movementBegun = snapshot.isMovementBegun();
+				file.seek(offset);
+				writer.writeToFile("Process: Resuming from snapshot [" + snapshotFile + "] at byte " + offset + ".");
+			} else {
+				writer.writeToFile("Warning: Ignoring snapshot [" + snapshotFile
+						+ "]. The file has changed since it was taken.");
+			}
 		}
-		return successful;
 	}
 
-	private String getCurrentLine() {
-		String currentLine = null;
+	private void writeSnapshot() throws IOException {
+		if (file.atLineStart()) {
+			long offset = file.getPosition();
+			BoardSnapshot.capture(board, movementBegun, offset, file.checksum(offset)).write(snapshotFile);
+		}
+	}
+
+	private boolean initializeReader(String fileName) {
+		boolean successful = true;
 		try {
-			currentLine = file.readLine();
+			file = new MappedLineReader(fileName);
 		} catch (IOException e) {
-			e.printStackTrace();
+			successful = false;
 		}
-		return currentLine;
+		return successful;
 	}
 
-	private void processPlacement(String currentLine) {
+	private void processPlacement(Directive placement) {
 		if (movementBegun) {
-			writer.writeToFile("Warning: Skipping [" + currentLine + "]. Movement has begun.");
+			writer.writeToFile("Warning: Skipping [" + placement + "]. Movement has begun.");
 		} else {
-			String placement = finder.getPlacementDirective(currentLine);
 			board.addNewPiece(placement);
 			String placement1 = "Placement: Adding [" + placement + "] " + format.formatPlacement(placement);
 			writer.writeToFile(placement1);
 		}
 	}
 
-	private void processMovement(String currentMovement, boolean isFirstMovement) {
+	private void playMovement(Directive movement) {
+		if (movement.isCastle()) {
+			board.castle(movement);
+			writeMove(format.formatCastle(movement));
+		} else {
+			processMovement(movement);
+		}
+	}
+
+	private void processMovement(Directive currentMovement) {
 		if (!movementBegun) {
 			movementBegun = true;
 		}
 
-		boolean movementValid = board.movePiece(currentMovement, isFirstMovement);
+		boolean movementValid = board.movePiece(currentMovement);
 		if (movementValid) {
-			writer.writeToFile(format.formatMovement(currentMovement, isFirstMovement));
+			writeMove(format.formatMovement(currentMovement));
 			board.writeBoard();
 		} else {
-			writeMovementError(currentMovement, isFirstMovement);
-		}
-	}
-
-	private void processCastling(String currentLine) throws Exception {
-		ArrayList<String> lineAction = finder.getLineAction(currentLine);
-		if (lineAction.get(0) != null && lineAction.get(1) != null) {
-			if (finder.containsSingleMovement(currentLine)) {
-				if (lineAction.size() == 2) {
-					if (finder.isCastle(lineAction.get(0))) {
-						if (board.isValidCastle(lineAction.get(0), true)) {
-							board.castle(true, lineAction.get(0));
-							writer.writeToFile(format.formatCastle(lineAction.get(0), true));
-						} else {
-							writer.writeToFile("This castle is impossible at this time.");
-						}
-					} else {
-						if (board.movePiece(lineAction.get(0), true)) {
-							writer.writeToFile(format.formatMovement(lineAction.get(0), true));
-						} else {
-							writeMovementError(lineAction.get(0), true);
-						}
-					}
-					if (finder.isCastle(lineAction.get(1))) {
-						if (board.isValidCastle(lineAction.get(1), false)) {
-							board.castle(false, lineAction.get(1));
-							writer.writeToFile(format.formatCastle(lineAction.get(1), false));
-						} else {
-							writer.writeToFile("This castle is impossible at this time.");
-						}
-					} else {
-						if (board.movePiece(lineAction.get(1), false)) {
-							writer.writeToFile(format.formatMovement(lineAction.get(1), false));
-						} else {
-							writeMovementError(lineAction.get(1), false);
-						}
-					}
-				}
+			writeMovementError(currentMovement);
+		}
+	}
+
+	private void processCastling(Directive white, Directive black) {
+		processLineAction(white);
+		processLineAction(black);
+	}
+
+	private void processLineAction(Directive action) {
+		if (action.isCastle()) {
+			if (board.isValidCastle(action)) {
+				board.castle(action);
+				writeMove(format.formatCastle(action));
 			} else {
-				if (board.isValidCastle(lineAction.get(0), true)) {
-					board.castle(true, lineAction.get(0));
-					writer.writeToFile(format.formatCastle(lineAction.get(0), true));
-				} else {
-					writer.writeToFile("This castle is impossible at this time.");
-				}
-				if (board.isValidCastle(lineAction.get(1), false)) {
-					board.castle(false, lineAction.get(1));
-					writer.writeToFile(format.formatCastle(lineAction.get(1), false));
-				} else {
-					writer.writeToFile("This castle is impossible at this time.");
-				}
+				++invalidMoves;
+				writer.writeToFile("This castle is impossible at this time.");
 			}
+		} else if (board.movePiece(action)) {
+			writeMove(format.formatMovement(action));
 		} else {
-			writer.writeToFile(format.getIncorrect(currentLine));
+			writeMovementError(action);
 		}
 	}
 
 	public void shutdown() {
 		try {
 			writer.writeToFile("Process: Closing Files.");
+			if (engine != null)
+				engine.shutdown();
+			if (book != null)
+				book.close();
+			for (Tablebase tablebase : tablebases)
+				tablebase.close();
 			if (file != null)
 				file.close();
 			writer.closeLogFile();
@@ -260,20 +559,35 @@ public class Translator {
 
 	}
 
-	private void writeMovementError(String movement, boolean isWhite) {
-		Position pos1 = new Position(handler.getInitialRank(movement, true), handler.getInitialFile(movement, true));
-		Position pos2 = new Position(handler.getSecondaryRank(movement), handler.getSecondaryFile(movement));
-		String s = format.formatInvalidMovement(board, pos1, pos2, isWhite, movement,
-				handler.getPieceChar(movement, isWhite));
-		writer.writeToFile(s);
+	private void writeMove(String movement) {
+		++validMoves;
+		writer.writeToFile(movement);
+		if (annotate) {
+			writer.writeToFile(format.formatEvaluation(board.getEvaluation(), board.getPhase()));
+		}
+	}
+
+	private void writeMovementError(Directive movement) {
+		++invalidMoves;
+		writer.writeToFile(format.formatInvalidMovement(board, movement));
+	}
+
+	private Directive toDirective(int move) {
+		Position target;
+		if (Move.isCastle(move)) {
+			target = (Move.isKingSideCastle(move) ? Position.KING_SIDE_CASTLE : Position.QUEEN_SIDE_CASTLE);
+		} else {
+			target = Position.of(Move.to(move));
+		}
+		return getCompleteMovement(board.getPiece(Position.of(Move.from(move))), target);
 	}
 
-	private String getCompleteMovement(Piece piece, Position position) {
+	private Directive getCompleteMovement(Piece piece, Position position) {
 		String movement;
-		if (position.file == -1)
-			movement = "O-O-O";
-		else if (position.file == 8)
-			movement = "O-O";
+		if (position == Position.QUEEN_SIDE_CASTLE)
+			movement = Directive.QUEEN_SIDE_CASTLE;
+		else if (position == Position.KING_SIDE_CASTLE)
+			movement = Directive.KING_SIDE_CASTLE;
 		else {
 			Piece[][] currentBoard = board.getBoard();
 			Position piecePostion = piece.getCurrentPosition();
@@ -283,7 +597,7 @@ public class Translator {
 			movement += Character.toLowerCase(ui.getFileLetter(position.getFile()));
 			movement += (position.getRank() + 1);
 		}
-		return movement;
+		return Directive.parse(movement, piece.isWhite());
 	}
 
 }
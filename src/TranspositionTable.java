@@ -0,0 +1,108 @@
+import java.util.Arrays;
+
+public class TranspositionTable {
+	public final static long NONE = 0L;
+	public final static int EXACT = 1;
+	public final static int LOWER_BOUND = 2;
+	public final static int UPPER_BOUND = 3;
+	private final static int BYTES_PER_ENTRY = 16;
+	private final static int ENTRIES_PER_BUCKET = 2;
+	private final static int LONGS_PER_BUCKET = ENTRIES_PER_BUCKET * 2;
+	private final static int SCORE_SHIFT = 16;
+	private final static int DEPTH_SHIFT = 32;
+	private final static int BOUND_SHIFT = 40;
+	private final static int GENERATION_SHIFT = 42;
+	private final static int GENERATION_MASK = 0xFF;
+	private final long[] table;
+	private final int bucketMask;
+	private int generation;
+
+	public TranspositionTable(int megabytes) {
+		long entries = Math.max((long) megabytes * 1024 * 1024 / BYTES_PER_ENTRY, ENTRIES_PER_BUCKET);
+		int buckets = Integer.highestOneBit((int) Math.min(entries / ENTRIES_PER_BUCKET, 1 << 27));
+		table = new long[buckets * LONGS_PER_BUCKET];
+		bucketMask = buckets - 1;
+		generation = 0;
+	}
+
+	public long probe(long hash) {
+		int base = bucketIndex(hash);
+		long found = NONE;
+		for (int slot = base; slot < base + LONGS_PER_BUCKET && found == NONE; slot += 2) {
+			long data = table[slot + 1];
+			if ((table[slot] ^ data) == hash && data != NONE) {
+				found = data;
+			}
+		}
+		return found;
+	}
+
+	public void store(long hash, int depth, int score, int bound, int move) {
+		int base = bucketIndex(hash);
+		long preferred = table[base + 1];
+		int slot;
+		if ((table[base] ^ preferred) == hash || preferred == NONE || depth >= depth(preferred)
+				|| generation(preferred) != generation) {
+			slot = base;
+		} else {
+			slot = base + 2;
+		}
+		long data = pack(depth, score, bound, move);
+		table[slot] = hash ^ data;
+		table[slot + 1] = data;
+	}
+
+	public void newSearch() {
+		generation = (generation + 1) & GENERATION_MASK;
+	}
+
+	public void clear() {
+		Arrays.fill(table, 0L);
+		generation = 0;
+	}
+
+	public int getCapacity() {
+		return table.length / 2;
+	}
+
+	public int hashfull() {
+		int sample = Math.min(1000, getCapacity());
+		int used = 0;
+		for (int i = 0; i < sample; ++i) {
+			long data = table[i * 2 + 1];
+			if (data != NONE && generation(data) == generation) {
+				++used;
+			}
+		}
+		return used * 1000 / sample;
+	}
+
+	private int bucketIndex(long hash) {
+		return ((int) (hash ^ (hash >>> 32)) & bucketMask) * LONGS_PER_BUCKET;
+	}
+
+	private long pack(int depth, int score, int bound, int move) {
+		return (move & 0xFFFFL) | ((score & 0xFFFFL) << SCORE_SHIFT) | ((long) (depth & 0xFF) << DEPTH_SHIFT)
+				| ((long) bound << BOUND_SHIFT) | ((long) generation << GENERATION_SHIFT);
+	}
+
+	public static int move(long entry) {
+		return (int) (entry & 0xFFFF);
+	}
+
+	public static int score(long entry) {
+		return (short) (entry >>> SCORE_SHIFT);
+	}
+
+	public static int depth(long entry) {
+		return (int) ((entry >>> DEPTH_SHIFT) & 0xFF);
+	}
+
+	public static int bound(long entry) {
+		return (int) ((entry >>> BOUND_SHIFT) & 0x3);
+	}
+
+	private static int generation(long entry) {
+		return (int) ((entry >>> GENERATION_SHIFT) & GENERATION_MASK);
+	}
+}
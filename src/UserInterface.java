@@ -9,6 +9,10 @@ public class UserInterface {
 		System.out.println("Choose your movement, " + (isWhite ? "white: " : "black: "));
 	}
 
+	public void informEngineMove(boolean isWhite, String movement) {
+		System.out.println("The computer plays " + (isWhite ? "white: " : "black: ") + movement);
+	}
+
 	private void promptForPiece(ArrayList<Piece> pieces) {
 		System.out.println("0. Exit");
 		int count = 1;
@@ -23,9 +27,9 @@ public class UserInterface {
 		System.out.println("1. Go Back");
 		int count = 2;
 		for (Position p : possibleMoves) {
-			if(p.getFile() == -1)
+			if(p == Position.QUEEN_SIDE_CASTLE)
 				System.out.println(count + ". castle Queen Side");
-			else if(p.getFile() == 8)
+			else if(p == Position.KING_SIDE_CASTLE)
 				System.out.println(count + ". Castle King side");
 			else
 			System.out.println(count + ". " + getMoveString(p));
@@ -65,9 +69,9 @@ public class UserInterface {
 	}
 
 	private void ensureMove(Position p) {
-		if(p.file == -1)
+		if(p == Position.QUEEN_SIDE_CASTLE)
 			System.out.println("Was this your choice? Castling queen side");
-		else if(p.file == 8)
+		else if(p == Position.KING_SIDE_CASTLE)
 			System.out.println("Was this your choice? Castling king side");
 		else
 		System.out.println("Was this your choice? " + getMoveString(p));
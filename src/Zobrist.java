@@ -0,0 +1,36 @@
+import java.util.Random;
+
+public class Zobrist {
+	private final static long SEED = 0x2F0B7157L;
+	private final static long[][] PIECES = new long[Bitboards.PIECE_TYPES * 2][Bitboards.SQUARES];
+	private final static long[] CASTLING = new long[16];
+	private final static long BLACK_TO_MOVE;
+
+	static {
+		Random random = new Random(SEED);
+		for (long[] keys : PIECES) {
+			for (int square = 0; square < Bitboards.SQUARES; ++square) {
+				keys[square] = random.nextLong();
+			}
+		}
+		for (int rights = 1; rights < CASTLING.length; ++rights) {
+			CASTLING[rights] = random.nextLong();
+		}
+		BLACK_TO_MOVE = random.nextLong();
+	}
+
+	private Zobrist() {
+	}
+
+	public static long piece(int pieceIndex, int square) {
+		return PIECES[pieceIndex][square];
+	}
+
+	public static long castling(int rights) {
+		return CASTLING[rights];
+	}
+
+	public static long blackToMove() {
+		return BLACK_TO_MOVE;
+	}
+}
@@ -0,0 +1,200 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Checks that DirectiveFinder.lex() classifies lines exactly like the regular expressions it replaced.
+ * Run from the project root:
+ *   javac -d out src/*.java test/DirectiveFinderEquivalenceTest.java
+ *   cp src/PieceSquareTables.txt out/
+ *   java -cp out DirectiveFinderEquivalenceTest
+ */
+public class DirectiveFinderEquivalenceTest {
+	private final static String SAMPLE_DIRECTORY = "src";
+	private final static String SAMPLE_PATTERN = "*.chess";
+	private final static int GENERATED_LINES = 500000;
+	private final static int MAX_TOKENS = 6;
+	private final static long SEED = 1;
+	private final static String[] TOKENS = { "O-O", "O-O-O", "e2-e4", "Nb1xc3", "Kle1", "Pda7", " ", " ", "\t", "//",
+			"/", "+", "#", "x", "-", "O", "a", "h8", "Q", "d7-d5+", "z", "b2xa3#", "\u000B", "\f" };
+	private final static String CASTLE_MOVE_CASTLE = "O-O e2-e4 O-O-O";
+	private final static String CRASHED = "CRASHED";
+	private final RegexDirectiveFinder regex = new RegexDirectiveFinder();
+	private final DirectiveFinder finder = new DirectiveFinder();
+	private int checked = 0;
+	private int failures = 0;
+
+	public static void main(String[] args) throws IOException {
+		DirectiveFinderEquivalenceTest test = new DirectiveFinderEquivalenceTest();
+		test.checkSampleFiles();
+		test.checkGeneratedLines();
+		test.checkCastleMoveCastle();
+		System.out.println("Checked " + test.checked + " line(s), " + test.failures + " failure(s).");
+		if (test.failures > 0) {
+			System.exit(1);
+		}
+	}
+
+	private void checkSampleFiles() throws IOException {
+		DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(SAMPLE_DIRECTORY), SAMPLE_PATTERN);
+		try {
+			for (Path game : stream) {
+				for (String line : Files.readAllLines(game, StandardCharsets.UTF_8)) {
+					check(line);
+				}
+			}
+		} finally {
+			stream.close();
+		}
+	}
+
+	private void checkGeneratedLines() {
+		Random random = new Random(SEED);
+		for (int n = 0; n < GENERATED_LINES; ++n) {
+			StringBuilder line = new StringBuilder();
+			int tokens = 1 + random.nextInt(MAX_TOKENS);
+			for (int i = 0; i < tokens; ++i) {
+				line.append(TOKENS[random.nextInt(TOKENS.length)]);
+			}
+			check(line.toString());
+		}
+	}
+
+	private void checkCastleMoveCastle() {
+		// The regular expressions threw on a castle, a move and a castle on one line; lex() rejects the line instead.
+		++checked;
+		String expected = classifyWithRegex(CASTLE_MOVE_CASTLE);
+		String actual = classifyWithLexer(CASTLE_MOVE_CASTLE);
+		if (!expected.equals(CRASHED) || !actual.equals(LineType.INCORRECT + "|" + CASTLE_MOVE_CASTLE)) {
+			fail(CASTLE_MOVE_CASTLE, expected, actual);
+		}
+	}
+
+	private void check(String line) {
+		++checked;
+		String expected = classifyWithRegex(line);
+		String actual = classifyWithLexer(line);
+		boolean passed = (expected.equals(CRASHED) ? actual.startsWith(LineType.INCORRECT.toString())
+				: expected.equals(actual));
+		if (!passed) {
+			fail(line, expected, actual);
+		}
+	}
+
+	private void fail(String line, String expected, String actual) {
+		++failures;
+		System.out.println("Mismatch: [" + line + "]\n  regex " + expected + "\n  lex   " + actual);
+	}
+
+	private String classifyWithRegex(String rawLine) {
+		String line = rawLine.trim();
+		if (regex.containsComment(line)) {
+			line = regex.removeComment(line).trim();
+		}
+		String result;
+		if (line.length() == 0) {
+			result = LineType.EMPTY + "|" + line;
+		} else if (regex.isPlacement(line)) {
+			result = LineType.PLACEMENT + "|" + line + "|" + regex.getPlacementDirective(line);
+		} else if (regex.isMovement(line)) {
+			ArrayList<String> movements = regex.getMovementDirectives(line);
+			result = LineType.MOVEMENT + "|" + line + "|" + movements.get(0) + "|" + movements.get(1);
+		} else if (regex.containsCastle(line)) {
+			ArrayList<String> action = regex.getLineAction(line);
+			if (action.isEmpty()) {
+				result = CRASHED;
+			} else if (action.get(0) != null && action.get(1) != null) {
+				result = LineType.CASTLING + "|" + line + "|" + action.get(0) + "|" + action.get(1);
+			} else {
+				result = LineType.INCORRECT + "|" + line;
+			}
+		} else {
+			result = LineType.INCORRECT + "|" + line;
+		}
+		return result;
+	}
+
+	private String classifyWithLexer(String line) {
+		LineType type = finder.lex(line);
+		String result = type + "|" + finder.getLine();
+		if (type == LineType.PLACEMENT) {
+			result += "|" + finder.getFirst();
+		} else if (type == LineType.MOVEMENT || type == LineType.CASTLING) {
+			result += "|" + finder.getFirst() + "|" + finder.getSecond();
+		}
+		return result;
+	}
+
+	// The regular expression based finder as it was before the lexer replaced it.
+	private static class RegexDirectiveFinder {
+		private final Pattern placementPattern = Pattern.compile("^(?<Pattern1>[KRNQBP][ld][a-h][1-8])\\s*$");
+		private final Pattern movementPattern = Pattern.compile(
+				"^(?<Movement1>[KRNQBP]?[a-h][1-8][\\-x][a-h][1-8][#\\+]?)\\s+(?<Movement2>[KRNQBP]?[a-h][1-8][\\-x][a-h][1-8][#\\+]?)$");
+		private final Pattern castlingPattern = Pattern.compile(
+				"\\s*(?<Castle1>O-O-O|O-O)?\\s*(?<Single1>[KRNQBP]?[a-h][1-8][\\-x][a-h][1-8][#+]?)?\\s*(?<Castle2>O-O-O|O-O)?\\s*");
+		private final Pattern castle = Pattern.compile("(O-O-O|O-O)");
+		private final Pattern onlyOne = Pattern
+				.compile("[^KRNQBPa-h]*(?<Movement1>[KRNQBP]?[a-h][1-8][\\-x][a-h][1-8][#\\+]?)\\s*");
+		private final Pattern twoCastlesFound = Pattern.compile("([^O\\-]*(O-O-O|O-O)[^O\\-]*){2}\\s*");
+
+		private boolean isPlacement(String currentLine) {
+			return placementPattern.matcher(currentLine).find();
+		}
+
+		private boolean isMovement(String currentLine) {
+			return movementPattern.matcher(currentLine).find();
+		}
+
+		private String getPlacementDirective(String currentLine) {
+			Matcher placementMatcher = placementPattern.matcher(currentLine);
+			placementMatcher.find();
+			return placementMatcher.group("Pattern1");
+		}
+
+		private ArrayList<String> getMovementDirectives(String currentLine) {
+			Matcher movementMatcher = movementPattern.matcher(currentLine);
+			movementMatcher.find();
+			ArrayList<String> movementDirectives = new ArrayList<String>();
+			movementDirectives.add(movementMatcher.group("Movement1"));
+			movementDirectives.add(movementMatcher.group("Movement2"));
+			return movementDirectives;
+		}
+
+		private String removeComment(String currentLine) {
+			return currentLine.substring(0, currentLine.indexOf('/'));
+		}
+
+		private boolean containsComment(String currentLine) {
+			return currentLine.contains("//");
+		}
+
+		private boolean containsCastle(String currentLine) {
+			return twoCastlesFound.matcher(currentLine).find()
+					|| (onlyOne.matcher(currentLine).find() && castle.matcher(currentLine).find());
+		}
+
+		private ArrayList<String> getLineAction(String currentLine) {
+			ArrayList<String> movement = new ArrayList<String>();
+			Matcher single = castlingPattern.matcher(currentLine);
+			single.find();
+			if (single.group("Castle1") == null) {
+				movement.add(single.group("Single1"));
+				movement.add(single.group("Castle2"));
+			} else if (single.group("Castle2") == null) {
+				movement.add(single.group("Castle1"));
+				movement.add(single.group("Single1"));
+			} else if (single.group("Single1") == null) {
+				movement.add(single.group("Castle1"));
+				movement.add(single.group("Castle2"));
+			}
+			return movement;
+		}
+	}
+}
@@ -0,0 +1,79 @@
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/*
+ * Checks that a tablebase only covers boards with both kings and the expected material.
+ * Run from the project root:
+ *   javac -d out src/*.java test/TablebaseCoverageTest.java
+ *   cp src/PieceSquareTables.txt out/
+ *   java -cp out TablebaseCoverageTest
+ */
+public class TablebaseCoverageTest {
+	private int checked = 0;
+	private int failures = 0;
+
+	public static void main(String[] args) throws IOException {
+		TablebaseCoverageTest test = new TablebaseCoverageTest();
+		File file = File.createTempFile("coverage", ".tb");
+		try {
+			writeEmptyTablebase(file, PieceType.QUEEN);
+			Tablebase tablebase = new Tablebase(file.getPath());
+			try {
+				test.check(tablebase, "Kle1 Qld1 / Kde8", true, "Kle1", "Qld1", "Kde8");
+				test.check(tablebase, "Kle1 / Kde8 Qdd8", true, "Kle1", "Kde8", "Qdd8");
+				test.check(tablebase, "Qld1 Rla1 / Kde8", false, "Qld1", "Rla1", "Kde8");
+				test.check(tablebase, "Kle1 / Qdd8 Rda8", false, "Kle1", "Qdd8", "Rda8");
+				test.check(tablebase, "Kle1 Qld1 / Rda8", false, "Kle1", "Qld1", "Rda8");
+				test.check(tablebase, "Qld1 Kde8 / Qdd8", false, "Qld1", "Kde8", "Qdd8");
+			} finally {
+				tablebase.close();
+			}
+		} finally {
+			file.delete();
+		}
+		System.out.println("Checked " + test.checked + " board(s), " + test.failures + " failure(s).");
+		if (test.failures > 0) {
+			System.exit(1);
+		}
+	}
+
+	private static void writeEmptyTablebase(File file, PieceType piece) throws IOException {
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+		try {
+			out.writeInt(Tablebase.MAGIC);
+			out.writeInt(Tablebase.VERSION);
+			out.writeInt(piece.ordinal());
+			out.writeInt(Tablebase.POSITIONS);
+			out.write(new byte[Tablebase.POSITIONS]);
+		} finally {
+			out.close();
+		}
+	}
+
+	private void check(Tablebase tablebase, String name, boolean expected, String... placements) {
+		Board board = new Board(null);
+		for (String placement : placements) {
+			board.addNewPiece(Directive.parse(placement, true));
+		}
+		for (boolean whiteToMove : new boolean[] { true, false }) {
+			++checked;
+			board.setWhiteToMove(whiteToMove);
+			String result;
+			try {
+				boolean covers = tablebase.covers(board);
+				int value = tablebase.probe(board);
+				result = (covers == expected && (covers || value == Tablebase.ILLEGAL) ? null
+						: "covers " + covers + ", probe " + value);
+			} catch (RuntimeException e) {
+				result = e.toString();
+			}
+			if (result != null) {
+				++failures;
+				System.out.println("Mismatch: [" + name + "] " + (whiteToMove ? "white" : "black") + " to move, expected "
+						+ (expected ? "covered" : "not covered") + ", got " + result);
+			}
+		}
+	}
+}